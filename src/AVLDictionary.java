@@ -1,3 +1,5 @@
+import java.io.IOException;
+
 /** 
  * Represents a AVL Tree. It is self-balancing.
  * It uses rotation methods to self balance. 
@@ -13,6 +15,7 @@ public class AVLDictionary<E, K extends Sortable> implements Dictionary<E, K> {
     private static final int MORELEFT = 1;
     private static final int MORERIGHT = 3;
     public boolean debugging = true;
+    protected long rotations = 0; // the number of rotations done so far.
 
     /**
      * Constructor for the AVL Tree.
@@ -80,7 +83,7 @@ public class AVLDictionary<E, K extends Sortable> implements Dictionary<E, K> {
 	public AVLNode<E, K> copyNode(AVLNode<E, K>  node) {
 		//simply calls the new constructor.
 	    if(node != null) {
-	        return new AVLNode<E, K>(node.getKey(), node.getElement(), node.getLeft(), node.getRight(), node.getBalance());
+	        return newNode(node.getKey(), node.getElement(), node.getLeft(), node.getRight(), node.getBalance());
 	    }
 	    else return null;
 	}
@@ -175,6 +178,14 @@ public class AVLDictionary<E, K extends Sortable> implements Dictionary<E, K> {
         return postorder_depth(root, 0); //calls the recursive method.
     }
 
+    /**
+     * Returns the number of rotations done by inserts and deletes so far.
+     * @return the rotation count.
+     */
+    public long getRotations() {
+        return rotations;
+    }
+
     /**
      * Finds the minimum value from a particular node.
      * This simply involves traversing the left-most nodes
@@ -211,7 +222,7 @@ public class AVLDictionary<E, K extends Sortable> implements Dictionary<E, K> {
     public void insert(K key, E element) {
         // there are no items yet in the AVL tree
         if(root == null) {
-            root = new AVLNode<E, K>(key, element, null, null, BALANCED);
+            root = newNode(key, element, null, null, BALANCED);
         }
         // there are items in the AVL tree
         // so we must find where to put the item. (by key)
@@ -229,7 +240,7 @@ public class AVLDictionary<E, K extends Sortable> implements Dictionary<E, K> {
      */
     public AVLNode<E, K> insertBelow(AVLNode<E, K> node, K key, E element) {
     	if(node == null) {
-    		return new AVLNode<E, K>(key, element, null, null, 2);
+    		return newNode(key, element, null, null, 2);
     	}
     	else if(key.compareTo(node.getKey()) == 0) {
     		return node; // they are equal.
@@ -238,7 +249,7 @@ public class AVLDictionary<E, K extends Sortable> implements Dictionary<E, K> {
     		//key is less than
     		if(node.getLeft() == null) {
     			//there is no node to insert it into
-    			node.setLeft(new AVLNode<E, K>(key, element, null, null, 2));
+    			node.setLeft(newNode(key, element, null, null, 2));
     		}
     		else {
     			//insert it into this node (recursive part)
@@ -251,7 +262,7 @@ public class AVLDictionary<E, K extends Sortable> implements Dictionary<E, K> {
     		//key is greater than
     		if(node.getRight() == null) {
     			//there is no node to insert it into
-    			node.setRight(new AVLNode<E, K>(key, element, null, null, 2));
+    			node.setRight(newNode(key, element, null, null, 2));
     		}
     		else {
     			//recursive part
@@ -263,6 +274,16 @@ public class AVLDictionary<E, K extends Sortable> implements Dictionary<E, K> {
     	return copyNode(balance(node));
 }
 
+    /**
+     * Creates a node. Every node of the tree is made here, so that
+     * subclasses can use a subclass of AVLNode.
+     *
+     * @return the new node.
+     */
+    protected AVLNode<E, K> newNode(K key, E element, AVLNode<E, K> left, AVLNode<E, K> right, int balance) {
+        return new AVLNode<E, K>(key, element, left, right, balance);
+    }
+
 	/** 
      * Recursive counter to count the depth of the tree's node.
      * 
@@ -284,7 +305,7 @@ public class AVLDictionary<E, K extends Sortable> implements Dictionary<E, K> {
      */
     public void printTree() {
         System.out.println("\nPrinting the AVL Tree below...");
-        inorder(root);
+        ExportSink.print(this);
     }
 	    
 	/** 
@@ -303,6 +324,7 @@ public class AVLDictionary<E, K extends Sortable> implements Dictionary<E, K> {
 		newRight.setBalance(2); //set it to be balanced.
 		newCenter.setRight(copyNode(newRight)); //set the new right.
 		newCenter.setBalance(2); //set it to be balanced.
+		rotations++;
 		return newCenter; //return the newly rotated subtree
 	}
 
@@ -326,6 +348,7 @@ public class AVLDictionary<E, K extends Sortable> implements Dictionary<E, K> {
 		newCenter.setBalance(1); //set it to be more left
 		newTop.setLeft(copyNode(newCenter));
 		newTop.setBalance(0); //extra more left
+		rotations++;
 		return newTop; //return the newly rotated subtree
 	}
     
@@ -348,6 +371,7 @@ public class AVLDictionary<E, K extends Sortable> implements Dictionary<E, K> {
 		newCenter.setBalance(3); //more right
 		newTop.setRight(copyNode(newCenter)); //set the new right
 		newTop.setBalance(4); // extra extra right
+		rotations++;
 		return newTop; //return the newly rotated subtree
 	}
 
@@ -368,6 +392,7 @@ public class AVLDictionary<E, K extends Sortable> implements Dictionary<E, K> {
 		newLeft.setBalance(2); //set to balanced
 		newCenter.setLeft(copyNode(newLeft)); 
 		newCenter.setBalance(2); //set to balanced
+		rotations++;
 		return newCenter; //return the newly rotated subtree
 	}
 
@@ -444,4 +469,17 @@ public class AVLDictionary<E, K extends Sortable> implements Dictionary<E, K> {
             return null;
         }
     }
+
+    /**
+     * Hands every entry to the visitor in sorted order (as determined
+     * by the keys), walking the tree without recursion.
+     * @param visitor the visitor to give the entries to.
+     */
+    public void traverse(DictionaryVisitor<E, K> visitor) throws IOException {
+        InorderIterator<E, K> nodes = new InorderIterator<E, K>(root);
+        while(nodes.hasNext()) {
+            BSTNode<E, K> node = nodes.next();
+            visitor.visit(node.getKey(), node.getElement());
+        }
+    }
 }
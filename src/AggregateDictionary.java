@@ -0,0 +1,116 @@
+/**
+ * An AVL Tree whose nodes also keep a summary of their subtree, such as
+ * the sum, smallest or largest of a value taken from each element, as
+ * given by a pluggable Monoid (see AggregateNode). The summaries are kept
+ * up to date through every insert, delete and rotation.
+ *
+ * With them, aggregate answers "the summary of every entry with a key
+ * from a to b" in O(log n), however many entries are in the range: it
+ * only walks the two paths to the ends of the range, taking whole
+ * subtrees in between from their summaries.
+ *
+ * @author Ryan Seys
+ */
+public class AggregateDictionary<E, K extends Sortable, A> extends AVLDictionary<E, K> {
+    protected final Monoid<E, A> monoid;
+
+    /**
+     * Constructor for the aggregating AVL Tree.
+     * @param monoid how elements are summarized and summaries combined.
+     */
+    public AggregateDictionary(Monoid<E, A> monoid) {
+        super();
+        this.monoid = monoid;
+    }
+
+    /**
+     * Returns the summary of every entry in the tree.
+     * @return the summary, the monoid's identity if the tree is empty.
+     */
+    public A aggregate() {
+        return AggregateNode.summary(root, monoid);
+    }
+
+    /**
+     * Returns the summary of the entries whose keys are from one key to
+     * another, both included, in key order.
+     *
+     * @param from the lowest key (inclusive), or null for no bound.
+     * @param to the highest key (inclusive), or null for no bound.
+     * @return the summary, the monoid's identity if no entries are in range.
+     */
+    public A aggregate(K from, K to) {
+        AVLNode<E, K> node = root;
+        //find the first node inside the range; the rest of the range is below it.
+        while(node != null) {
+            if((from != null) && (node.getKey().compareTo(from) < 0)) {
+                node = node.getRight();
+            }
+            else if((to != null) && (node.getKey().compareTo(to) > 0)) {
+                node = node.getLeft();
+            }
+            else {
+                A middle = monoid.combine(aggregateFrom(node.getLeft(), from), monoid.of(node.getElement()));
+                return monoid.combine(middle, aggregateTo(node.getRight(), to));
+            }
+        }
+        return monoid.identity(); //nothing in the range.
+    }
+
+    /**
+     * Summarizes the entries under a node whose keys are at least from,
+     * following a single path down.
+     */
+    A aggregateFrom(AVLNode<E, K> node, K from) {
+        A summary = monoid.identity();
+        while(node != null) {
+            if((from == null) || (node.getKey().compareTo(from) >= 0)) {
+                //this entry and everything to its right are in range,
+                //and come after whatever is found further down.
+                A part = monoid.combine(monoid.of(node.getElement()), AggregateNode.summary(node.getRight(), monoid));
+                summary = monoid.combine(part, summary);
+                node = node.getLeft();
+            }
+            else {
+                node = node.getRight();
+            }
+        }
+        return summary;
+    }
+
+    /**
+     * Summarizes the entries under a node whose keys are at most to,
+     * following a single path down.
+     */
+    A aggregateTo(AVLNode<E, K> node, K to) {
+        A summary = monoid.identity();
+        while(node != null) {
+            if((to == null) || (node.getKey().compareTo(to) <= 0)) {
+                //this entry and everything to its left are in range,
+                //and come before whatever is found further down.
+                A part = monoid.combine(AggregateNode.summary(node.getLeft(), monoid), monoid.of(node.getElement()));
+                summary = monoid.combine(summary, part);
+                node = node.getRight();
+            }
+            else {
+                node = node.getLeft();
+            }
+        }
+        return summary;
+    }
+
+    /**
+     * Creates an AggregateNode, which works out its summary from its children.
+     */
+    protected AVLNode<E, K> newNode(K key, E element, AVLNode<E, K> left, AVLNode<E, K> right, int balance) {
+        return new AggregateNode<E, K, A>(key, element, left, right, balance, monoid);
+    }
+
+    /**
+     * Print the Dictionary in sorted order (as determined by the keys).
+     */
+    public void printTree() {
+        System.out.println("\nPrinting the Aggregate AVL Tree below...");
+        ExportSink.print(this);
+    }
+}
@@ -0,0 +1,104 @@
+import java.util.Random;
+
+// The "AggregateDictionaryTest" class.
+// This class fills AggregateDictionaries (sum, min and max of the
+// elements, and a count) with random keys, deletes some of them, then
+// checks range aggregates against a scan of every entry. It prints
+// how long the aggregates and the scans took.
+// Arguments: number of keys (default 100000), queries (default 1000).
+public class AggregateDictionaryTest {
+	protected static final ValueExtractor<Integer> VALUE = new ValueExtractor<Integer>() {
+		public long valueOf(Integer element) {
+			return element;
+		}
+	};
+
+	protected static SortableString key(int i) {
+		// zero-padded so that string order is number order
+		String s = Integer.toString(i);
+		return new SortableString("0000000000".substring(s.length()) + s);
+	} // key method
+
+	// Adds up the entries in a range of keys, one by one
+	static class Scan implements DictionaryVisitor<Integer, SortableString> {
+		final SortableString from, to;
+
+		long sum = 0, count = 0;
+
+		Long min = null, max = null;
+
+		Scan(SortableString from, SortableString to) {
+			this.from = from;
+			this.to = to;
+		} // Scan constructor
+
+		public void visit(SortableString key, Integer element) {
+			if (key.compareTo(from) < 0 || key.compareTo(to) > 0)
+				return;
+			sum += element;
+			count++;
+			min = (min == null) ? element : Math.min(min, element);
+			max = (max == null) ? element : Math.max(max, element);
+		} // visit method
+	} /* Scan class */
+
+	public static void main(String[] args) throws Exception {
+		int size = (args.length > 0) ? Integer.parseInt(args[0]) : 100000;
+		int queries = (args.length > 1) ? Integer.parseInt(args[1]) : 1000;
+		AggregateDictionary<Integer, SortableString, Long> sum = new AggregateDictionary<Integer, SortableString, Long>(
+				Monoid.sum(VALUE));
+		AggregateDictionary<Integer, SortableString, Long> min = new AggregateDictionary<Integer, SortableString, Long>(
+				Monoid.min(VALUE));
+		AggregateDictionary<Integer, SortableString, Long> max = new AggregateDictionary<Integer, SortableString, Long>(
+				Monoid.max(VALUE));
+		AggregateDictionary<Integer, SortableString, Long> count = new AggregateDictionary<Integer, SortableString, Long>(
+				Monoid.<Integer> count());
+		AggregateDictionary<?, ?, ?>[] all = { sum, min, max, count };
+
+		Random random = new Random(23);
+		int range = size * 4;
+		for (int i = 0; i < size; i++) {
+			SortableString key = key(random.nextInt(range));
+			Integer element = random.nextInt(1000000) - 500000;
+			sum.insert(key, element);
+			min.insert(key, element);
+			max.insert(key, element);
+			count.insert(key, element);
+		}
+		for (int i = 0; i < size / 4; i++) {
+			SortableString key = key(random.nextInt(range));
+			if (sum.search(key) != null) {
+				sum.delete(key);
+				min.delete(key);
+				max.delete(key);
+				count.delete(key);
+			}
+		}
+
+		int wrong = 0;
+		long treeNanos = 0, scanNanos = 0;
+		for (int q = 0; q < queries; q++) {
+			int a = random.nextInt(range), b = random.nextInt(range);
+			SortableString from = key(Math.min(a, b)), to = key(Math.max(a, b));
+			long start = System.nanoTime();
+			Object[] got = { sum.aggregate(from, to), min.aggregate(from, to),
+					max.aggregate(from, to), count.aggregate(from, to) };
+			treeNanos += System.nanoTime() - start;
+
+			// the same aggregates by looking at every entry in the range
+			start = System.nanoTime();
+			Scan scan = new Scan(from, to);
+			sum.traverse(scan);
+			scanNanos += System.nanoTime() - start;
+			Object[] expected = { scan.sum, scan.min, scan.max, scan.count };
+			for (int i = 0; i < all.length; i++)
+				if ((got[i] == null) ? expected[i] != null : !got[i].equals(expected[i]))
+					wrong++;
+		}
+		System.out.println(queries + " range queries over " + count.aggregate()
+				+ " entries: " + wrong + " wrong answers");
+		System.out.println("aggregate: " + treeNanos / queries / 1000.0
+				+ " us per query (4 aggregates), scan: " + scanNanos / queries
+				/ 1000.0 + " us per query");
+	} // main method
+} /* AggregateDictionaryTest class */
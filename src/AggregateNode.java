@@ -0,0 +1,48 @@
+// The "AggregateNode" class.
+// An AVLNode which also keeps the Monoid summary of every element in
+// its subtree, in key order. It is recomputed from the children
+// whenever the node's element or children change, so it stays right
+// through inserts, deletes and rotations.
+public class AggregateNode<E, K extends Sortable, A> extends AVLNode<E, K> {
+	protected final Monoid<E, A> monoid;
+
+	protected A summary;
+
+	public AggregateNode(K key, E element, AVLNode<E, K> left,
+			AVLNode<E, K> right, int balance, Monoid<E, A> monoid) {
+		super(key, element, left, right, balance);
+		this.monoid = monoid;
+		resummarize();
+	} // AggregateNode constructor
+
+	// The summary of a subtree, the identity if it is empty
+	@SuppressWarnings("unchecked")
+	public static <A> A summary(BSTNode<?, ?> node, Monoid<?, A> monoid) {
+		return (node == null) ? monoid.identity()
+				: ((AggregateNode<?, ?, A>) node).summary;
+	} // summary method
+
+	protected void resummarize() {
+		summary = monoid.combine(monoid.combine(summary(left, monoid),
+				monoid.of(element)), summary(right, monoid));
+	} // resummarize method
+
+	public A getSummary() {
+		return summary;
+	} // getSummary method
+
+	public void setElement(E element) {
+		super.setElement(element);
+		resummarize();
+	} // setElement method
+
+	public void setLeft(BSTNode<E, K> node) {
+		super.setLeft(node);
+		resummarize();
+	} // setLeft method
+
+	public void setRight(BSTNode<E, K> node) {
+		super.setRight(node);
+		resummarize();
+	} // setRight method
+} /* AggregateNode class */
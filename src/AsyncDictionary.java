@@ -0,0 +1,258 @@
+import java.io.IOException;
+import java.util.Comparator;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * This class lets any dictionary be used from many threads, either
+ * directly or through searchAsync, insertAsync and deleteAsync, which run
+ * the work on an executor and return a Future.
+ *
+ * Searches share a read lock and inserts and deletes take the write lock,
+ * using java.util.concurrent locks rather than synchronized. Some
+ * dictionaries change their own state when searched (BoundedDictionary
+ * moves the entry up its eviction list, for one), so searches on those
+ * take the write lock too (see sharedSearches). Searches for
+ * a key which is already being looked up are not run again: they are
+ * given the Future of the search which is waiting to run.
+ *
+ * @author Ryan Seys
+ */
+public class AsyncDictionary<E, K extends Sortable> implements Dictionary<E, K> {
+	protected final Dictionary<E, K> dict;
+
+	protected final ExecutorService executor;
+
+	protected final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+	// searches which have been submitted but have not started, by key.
+	protected final ConcurrentSkipListMap<K, PendingResult<E>> pending;
+
+	protected final AtomicLong coalesced = new AtomicLong(); // searches shared.
+
+	// whether searches only read, so that they can share the read lock.
+	protected final boolean readOnlySearches;
+
+	/**
+	 * Constructor for the asynchronous dictionary. Searches share the
+	 * read lock only if the dictionary is one of the trees, whose searches
+	 * are known to change nothing.
+	 *
+	 * @param dict the dictionary to protect, which must not be used directly.
+	 * @param executor runs the asynchronous requests, owned by the caller.
+	 */
+	public AsyncDictionary(Dictionary<E, K> dict, ExecutorService executor) {
+		this(dict, executor, sharedSearches(dict));
+	}
+
+	/**
+	 * Constructor for the asynchronous dictionary.
+	 *
+	 * @param dict the dictionary to protect, which must not be used directly.
+	 * @param executor runs the asynchronous requests, owned by the caller.
+	 * @param readOnlySearches true if the dictionary's searches change
+	 *        nothing, so they may run alongside each other.
+	 */
+	public AsyncDictionary(Dictionary<E, K> dict, ExecutorService executor, boolean readOnlySearches) {
+		this.dict = dict;
+		this.executor = executor;
+		this.readOnlySearches = readOnlySearches;
+		this.pending = new ConcurrentSkipListMap<K, PendingResult<E>>(new Comparator<K>() {
+			public int compare(K a, K b) {
+				return a.compareTo(b);
+			}
+		});
+	}
+
+	/**
+	 * Delete an entry with key passed as the parameter.
+	 * @param key The key we wish to delete from this dictionary.
+	 */
+	public void delete(K key) {
+		lock.writeLock().lock();
+		try {
+			dict.delete(key);
+		}
+		finally {
+			lock.writeLock().unlock();
+		}
+	}
+
+	/**
+	 * Deletes an entry on the executor.
+	 * @param key The key we wish to delete from this dictionary.
+	 * @return a Future which completes once the entry is deleted.
+	 */
+	public PendingResult<Void> deleteAsync(final K key) {
+		final PendingResult<Void> result = new PendingResult<Void>();
+		executor.execute(new Runnable() {
+			public void run() {
+				try {
+					delete(key);
+					result.complete(null);
+				}
+				catch(Throwable t) {
+					result.fail(t);
+				}
+			}
+		});
+		return result;
+	}
+
+	/**
+	 * Returns the depth of the underlying tree.
+	 * @return the depth of the tree in integer form.
+	 */
+	public int depth() {
+		lock.readLock().lock();
+		try {
+			return dict.depth();
+		}
+		finally {
+			lock.readLock().unlock();
+		}
+	}
+
+	/**
+	 * Returns how many searches were answered by another search's result.
+	 * @return the number of shared searches.
+	 */
+	public long getCoalesced() {
+		return coalesced.get();
+	}
+
+	/**
+	 * Insert a key-value pair into the dictionary.
+	 */
+	public void insert(K key, E element) {
+		lock.writeLock().lock();
+		try {
+			dict.insert(key, element);
+		}
+		finally {
+			lock.writeLock().unlock();
+		}
+	}
+
+	/**
+	 * Inserts a key-value pair on the executor.
+	 *
+	 * @param key the key value of the entry to be inserted
+	 * @param element the element value of the entry to be inserted
+	 * @return a Future which completes once the entry is inserted.
+	 */
+	public PendingResult<Void> insertAsync(final K key, final E element) {
+		final PendingResult<Void> result = new PendingResult<Void>();
+		executor.execute(new Runnable() {
+			public void run() {
+				try {
+					insert(key, element);
+					result.complete(null);
+				}
+				catch(Throwable t) {
+					result.fail(t);
+				}
+			}
+		});
+		return result;
+	}
+
+	/**
+	 * Print the Dictionary in sorted order (as determined by the keys).
+	 */
+	public void printTree() {
+		lock.readLock().lock();
+		try {
+			dict.printTree();
+		}
+		finally {
+			lock.readLock().unlock();
+		}
+	}
+
+	/**
+	 * Returns the element with the given key, or null if not found.
+	 */
+	public E search(K key) {
+		Lock held = readOnlySearches ? lock.readLock() : lock.writeLock();
+		held.lock();
+		try {
+			return dict.search(key);
+		}
+		finally {
+			held.unlock();
+		}
+	}
+
+	/**
+	 * Returns whether a dictionary's searches are known to change nothing.
+	 * Only the plain trees are trusted: wrappers such as BoundedDictionary,
+	 * ExpiringDictionary and BloomFilterDictionary update their own state
+	 * on every search.
+	 *
+	 * @param dict the dictionary to check.
+	 * @return true if searches may share the read lock.
+	 */
+	public static boolean sharedSearches(Dictionary<?, ?> dict) {
+		return (dict instanceof AVLDictionary) || (dict instanceof BSTDictionary)
+				|| (dict instanceof VersionedDictionary) || (dict instanceof ShardedDictionary);
+	}
+
+	/**
+	 * Searches on the executor. If a search for the same key is waiting to
+	 * run, its Future is returned instead of submitting another one.
+	 *
+	 * @param key the key value of the entry we are looking for.
+	 * @return a Future holding the element, or null if not found. It
+	 *         fails if the executor will not take the search.
+	 */
+	public PendingResult<E> searchAsync(final K key) {
+		final PendingResult<E> result = new PendingResult<E>();
+		PendingResult<E> waiting = pending.putIfAbsent(key, result);
+		if(waiting != null) {
+			coalesced.incrementAndGet();
+			return waiting;
+		}
+		try {
+			executor.execute(new Runnable() {
+				public void run() {
+					//stop sharing before reading, so that nobody who arrives
+					//after the read has started gets its (possibly old) result.
+					pending.remove(key, result);
+					try {
+						result.complete(search(key));
+					}
+					catch(Throwable t) {
+						result.fail(t);
+					}
+				}
+			});
+		}
+		catch(RejectedExecutionException e) {
+			//it will never run, so later searches must not wait for it,
+			//and those which already joined it fail too.
+			pending.remove(key, result);
+			result.fail(e);
+		}
+		return result;
+	}
+
+	/**
+	 * Hands every entry to the visitor in sorted order, holding
+	 * the read lock so that no writer runs in the meantime.
+	 * @param visitor the visitor to give the entries to.
+	 */
+	public void traverse(DictionaryVisitor<E, K> visitor) throws IOException {
+		lock.readLock().lock();
+		try {
+			dict.traverse(visitor);
+		}
+		finally {
+			lock.readLock().unlock();
+		}
+	}
+}
@@ -0,0 +1,72 @@
+import java.util.Arrays;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// The "AsyncDictionaryLoadTest" class.
+// This class drives an AsyncDictionary (over an AVLDictionary) from
+// many client threads at once. Each client repeatedly submits a search
+// (80%), insert (10%) or delete (10%) and waits for it. At the end it
+// prints the throughput and the median and 99th percentile latency.
+// Arguments: total requests (default 100000), clients (default 200)
+// and executor threads (default: the number of processors).
+public class AsyncDictionaryLoadTest {
+	protected static final int KEYS = 10000;
+
+	public static void main(String[] args) throws Exception {
+		final int total = (args.length > 0) ? Integer.parseInt(args[0]) : 100000;
+		int clients = (args.length > 1) ? Integer.parseInt(args[1]) : 200;
+		int workers = (args.length > 2) ? Integer.parseInt(args[2])
+				: Runtime.getRuntime().availableProcessors();
+
+		ExecutorService executor = Executors.newFixedThreadPool(workers);
+		final AsyncDictionary<String, SortableString> dict = new AsyncDictionary<String, SortableString>(
+				new AVLDictionary<String, SortableString>(), executor);
+		Random random = new Random(42);
+		for (int i = 0; i < KEYS / 2; i++) {
+			String s = Integer.toString(random.nextInt(KEYS));
+			dict.insert(new SortableString(s), s);
+		}
+
+		final long[] latencies = new long[total];
+		final AtomicInteger next = new AtomicInteger();
+		Thread[] threads = new Thread[clients];
+		for (int c = 0; c < clients; c++) {
+			final Random ops = new Random(c);
+			threads[c] = new Thread() {
+				public void run() {
+					int i;
+					while ((i = next.getAndIncrement()) < total) {
+						String s = Integer.toString(ops.nextInt(KEYS));
+						SortableString key = new SortableString(s);
+						int op = ops.nextInt(10);
+						long start = System.nanoTime();
+						if (op < 8)
+							dict.searchAsync(key).join();
+						else if (op == 8)
+							dict.insertAsync(key, s).join();
+						else
+							dict.deleteAsync(key).join();
+						latencies[i] = System.nanoTime() - start;
+					}
+				}
+			};
+		}
+
+		long start = System.nanoTime();
+		for (Thread t : threads)
+			t.start();
+		for (Thread t : threads)
+			t.join();
+		double seconds = (System.nanoTime() - start) / 1e9;
+		executor.shutdown();
+
+		Arrays.sort(latencies);
+		System.out.println(total + " requests from " + clients + " clients on "
+				+ workers + " threads: " + (long) (total / seconds) + " ops/s");
+		System.out.println("p50 " + latencies[total / 2] / 1000 + " us, p99 "
+				+ latencies[(int) (total * 0.99)] / 1000 + " us, "
+				+ dict.getCoalesced() + " searches coalesced");
+	} // main method
+} /* AsyncDictionaryLoadTest class */
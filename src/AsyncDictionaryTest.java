@@ -0,0 +1,92 @@
+import java.util.Random;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+// The "AsyncDictionaryTest" class.
+// This class wraps an LRU BoundedDictionary, whose searches move the
+// entry found to the back of its eviction list, in an AsyncDictionary,
+// and has several threads search it at once, both directly and with
+// searchAsync. Afterwards the list must still hold every entry exactly
+// once, linked the same way forwards and backwards. Once the executor
+// is shut down, searchAsync must fail rather than leave callers waiting.
+// Arguments: entries (default 1000), threads (default 8), searches per
+// thread (default 200000).
+public class AsyncDictionaryTest {
+	public static void main(String[] args) throws Exception {
+		final int size = (args.length > 0) ? Integer.parseInt(args[0]) : 1000;
+		int threads = (args.length > 1) ? Integer.parseInt(args[1]) : 8;
+		final int searches = (args.length > 2) ? Integer.parseInt(args[2]) : 200000;
+
+		BoundedDictionary<String, SortableString> bounded = new BoundedDictionary<String, SortableString>(
+				new AVLDictionary<BoundedEntry<String, SortableString>, SortableString>(),
+				size, EvictionPolicy.<String, SortableString> lru());
+		ExecutorService executor = Executors.newFixedThreadPool(threads);
+		final AsyncDictionary<String, SortableString> dict = new AsyncDictionary<String, SortableString>(
+				bounded, executor);
+		for (int i = 0; i < size; i++)
+			dict.insert(new SortableString(Integer.toString(i)), Integer.toString(i));
+
+		final int[] missing = new int[threads];
+		Thread[] workers = new Thread[threads];
+		for (int t = 0; t < threads; t++) {
+			final int id = t;
+			workers[t] = new Thread() {
+				public void run() {
+					Random random = new Random(id);
+					for (int i = 0; i < searches; i++) {
+						SortableString key = new SortableString(Integer
+								.toString(random.nextInt(size)));
+						String found = (i % 16 == 0) ? dict.searchAsync(key).join()
+								: dict.search(key);
+						if (found == null)
+							missing[id]++;
+					}
+				}
+			};
+		}
+		for (Thread worker : workers)
+			worker.start();
+		for (Thread worker : workers)
+			worker.join();
+		executor.shutdown();
+
+		int wrong = 0;
+		for (int count : missing)
+			wrong += count;
+		// walk the LRU list both ways
+		QueueEvictionPolicy<String, SortableString> lru = (QueueEvictionPolicy<String, SortableString>) bounded.policy;
+		int forwards = 0, backwards = 0;
+		for (BoundedEntry<String, SortableString> e = lru.head; e != null
+				&& forwards <= size; e = e.next)
+			forwards++;
+		for (BoundedEntry<String, SortableString> e = lru.tail; e != null
+				&& backwards <= size; e = e.previous)
+			backwards++;
+		System.out.println(threads + " threads searched " + size
+				+ " entries: LRU list has " + forwards + " entries forwards, "
+				+ backwards + " backwards; " + wrong + " searches missed");
+		if (forwards != size || backwards != size)
+			wrong++;
+
+		// the executor is shut down: each search is rejected, and a second
+		// one for the same key must not be given the first one's Future
+		int hung = 0, failed = 0;
+		for (int i = 0; i < 2; i++) {
+			try {
+				dict.searchAsync(new SortableString("0")).get(5, TimeUnit.SECONDS);
+			} catch (ExecutionException e) {
+				failed++;
+			} catch (TimeoutException e) {
+				hung++;
+			}
+		}
+		System.out.println("After shutdown: " + failed + " of 2 searches failed, "
+				+ hung + " hung");
+		if (failed != 2)
+			wrong++;
+		System.out.println(wrong + " wrong");
+	} // main method
+} /* AsyncDictionaryTest class */
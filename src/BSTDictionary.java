@@ -1,3 +1,5 @@
+import java.io.IOException;
+
 /** 
  * This class represents a binary search tree dictionary.
  * Note: The binary search tree is not always balanced. (See AVLDictionary).
@@ -234,9 +236,9 @@ public class BSTDictionary<E, K extends Sortable> implements Dictionary<E, K> {
 	 * to print in sorted order, we traverse and print the tree "inorder".
 	 */
 	public void printTree() {
-		//print the tree by calling the recursive algo.
+		//print the tree by streaming it through the text encoder.
 		System.out.println("\nPrinting BSTree...");
-		inorder(root);
+		ExportSink.print(this);
 	}
 
 	/**
@@ -312,4 +314,17 @@ public class BSTDictionary<E, K extends Sortable> implements Dictionary<E, K> {
 			return null;
 		}
 	}
+
+	/**
+	 * Hands every entry to the visitor in sorted order (as determined
+	 * by the keys), walking the tree without recursion.
+	 * @param visitor the visitor to give the entries to.
+	 */
+	public void traverse(DictionaryVisitor<E, K> visitor) throws IOException {
+		InorderIterator<E, K> nodes = new InorderIterator<E, K>(root);
+		while(nodes.hasNext()) {
+			BSTNode<E, K> node = nodes.next();
+			visitor.visit(node.getKey(), node.getElement());
+		}
+	}
 }
\ No newline at end of file
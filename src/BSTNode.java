@@ -29,6 +29,10 @@ public class BSTNode<E, K extends Sortable> {
 		return right;
 	} // getRight method
 
+	public void setKey(K key) {
+		this.key = key;
+	} // setKey method
+
 	public void setElement(E element) {
 		this.element = element;
 	} // setElement method
@@ -0,0 +1,140 @@
+import java.io.IOException;
+
+/**
+ * This class puts a CountingBloomFilter in front of another dictionary,
+ * so that searching for a key which is not there usually costs a few
+ * counter lookups instead of a walk down the whole tree.
+ * The filter is kept in step with every insert and delete, and never
+ * answers "not present" for a key which is in the dictionary.
+ *
+ * Keys must have a hashCode which agrees with compareTo (as
+ * SortableString does).
+ *
+ * @author Ryan Seys
+ */
+public class BloomFilterDictionary<E, K extends Sortable> implements Dictionary<E, K> {
+	protected final Dictionary<E, K> dict;
+
+	protected final CountingBloomFilter filter;
+
+	protected long searches = 0; // the number of searches.
+
+	protected long filtered = 0; // searches answered by the filter alone.
+
+	protected long falsePositives = 0; // searches the filter let through in vain.
+
+	/**
+	 * Constructor for the filtered dictionary.
+	 *
+	 * @param dict the (empty) dictionary to put the filter in front of.
+	 * @param expected how many entries the dictionary is expected to hold.
+	 * @param falsePositiveRate the wanted chance of a missing key getting
+	 *        past the filter, such as 0.01.
+	 */
+	public BloomFilterDictionary(Dictionary<E, K> dict, int expected, double falsePositiveRate) {
+		this.dict = dict;
+		this.filter = new CountingBloomFilter(expected, falsePositiveRate);
+	}
+
+	/**
+	 * Delete an entry with key passed as the parameter.
+	 * The filter is only updated if the key was really there.
+	 * @param key The key we wish to delete from this dictionary.
+	 */
+	public void delete(K key) {
+		if(filter.mightContain(key) && (dict.search(key) != null)) {
+			dict.delete(key);
+			filter.remove(key);
+		}
+	}
+
+	/**
+	 * Returns the depth of the underlying tree.
+	 * @return the depth of the tree in integer form.
+	 */
+	public int depth() {
+		return dict.depth();
+	}
+
+	/**
+	 * Returns how many searches the filter let through for missing keys.
+	 * @return the false positive count.
+	 */
+	public long getFalsePositives() {
+		return falsePositives;
+	}
+
+	/**
+	 * Returns the share of searches for missing keys which the filter
+	 * let through, which should be close to the configured rate.
+	 * @return the observed false positive rate, or 0 if there were no misses.
+	 */
+	public double getFalsePositiveRate() {
+		long misses = filtered + falsePositives;
+		return (misses == 0) ? 0 : (double) falsePositives / misses;
+	}
+
+	/**
+	 * Returns how many searches were answered by the filter alone.
+	 * @return the filtered search count.
+	 */
+	public long getFiltered() {
+		return filtered;
+	}
+
+	/**
+	 * Returns the number of searches so far.
+	 * @return the search count.
+	 */
+	public long getSearches() {
+		return searches;
+	}
+
+	/**
+	 * Insert a key-value pair into the dictionary.
+	 * Duplicate keys are ignored, and are not added to the filter again.
+	 */
+	public void insert(K key, E element) {
+		//if the filter has never seen the key it cannot be a duplicate.
+		if(filter.mightContain(key) && (dict.search(key) != null)) {
+			return;
+		}
+		dict.insert(key, element);
+		filter.add(key);
+	}
+
+	/**
+	 * Print the Dictionary in sorted order (as determined by the keys).
+	 */
+	public void printTree() {
+		dict.printTree();
+	}
+
+	/**
+	 * Returns the element with the given key, or null if not found.
+	 * Keys the filter has never seen are not searched for at all.
+	 */
+	public E search(K key) {
+		if(key == null) {
+			return null; //looking for nothing
+		}
+		searches++;
+		if(!filter.mightContain(key)) {
+			filtered++;
+			return null;
+		}
+		E element = dict.search(key);
+		if(element == null) {
+			falsePositives++;
+		}
+		return element;
+	}
+
+	/**
+	 * Hands every entry to the visitor in sorted order.
+	 * @param visitor the visitor to give the entries to.
+	 */
+	public void traverse(DictionaryVisitor<E, K> visitor) throws IOException {
+		dict.traverse(visitor);
+	}
+}
@@ -0,0 +1,182 @@
+import java.io.IOException;
+
+/**
+ * This class puts a cap on the total weight of the entries in another
+ * dictionary, which stores each element in a BoundedEntry. By default
+ * every entry weighs 1, so the cap is a number of entries; with a Weigher
+ * it can be a number of bytes or any other size.
+ *
+ * When an insert takes the total over the cap, entries chosen by the
+ * EvictionPolicy (LRU, LFU or FIFO) are deleted until it fits again.
+ * Searches tell the policy which entries are in use, so they are not
+ * safe to run alongside each other.
+ *
+ * @author Ryan Seys
+ */
+public class BoundedDictionary<E, K extends Sortable> implements Dictionary<E, K> {
+	protected final Dictionary<BoundedEntry<E, K>, K> dict;
+
+	protected final long maxWeight;
+
+	protected final EvictionPolicy<E, K> policy;
+
+	protected final Weigher<E, K> weigher;
+
+	protected long weight = 0; // the total weight of the entries.
+
+	protected long evicted = 0; // the number of entries evicted.
+
+	protected long rejected = 0; // entries heavier than the whole cap.
+
+	/**
+	 * Constructor for a dictionary holding at most maxEntries entries.
+	 *
+	 * @param dict the (empty) dictionary which stores the entries.
+	 * @param maxEntries the most entries to keep.
+	 * @param policy decides which entries to evict.
+	 */
+	public BoundedDictionary(Dictionary<BoundedEntry<E, K>, K> dict, long maxEntries, EvictionPolicy<E, K> policy) {
+		this(dict, maxEntries, policy, new Weigher<E, K>() {
+			public long weigh(K key, E element) {
+				return 1;
+			}
+		});
+	}
+
+	/**
+	 * Constructor for a dictionary whose entries weigh at most maxWeight.
+	 *
+	 * @param dict the (empty) dictionary which stores the entries.
+	 * @param maxWeight the most total weight to keep.
+	 * @param policy decides which entries to evict.
+	 * @param weigher gives the weight of each entry.
+	 */
+	public BoundedDictionary(Dictionary<BoundedEntry<E, K>, K> dict, long maxWeight, EvictionPolicy<E, K> policy, Weigher<E, K> weigher) {
+		this.dict = dict;
+		this.maxWeight = maxWeight;
+		this.policy = policy;
+		this.weigher = weigher;
+	}
+
+	/**
+	 * Delete an entry with key passed as the parameter.
+	 * @param key The key we wish to delete from this dictionary.
+	 */
+	public void delete(K key) {
+		BoundedEntry<E, K> entry = dict.search(key);
+		if(entry != null) {
+			remove(entry);
+		}
+	}
+
+	/**
+	 * Returns the depth of the underlying tree.
+	 * @return the depth of the tree in integer form.
+	 */
+	public int depth() {
+		return dict.depth();
+	}
+
+	/**
+	 * Returns the number of entries evicted to stay under the cap.
+	 * @return the eviction count.
+	 */
+	public long getEvicted() {
+		return evicted;
+	}
+
+	/**
+	 * Returns the cap on the total weight.
+	 * @return the maximum weight.
+	 */
+	public long getMaxWeight() {
+		return maxWeight;
+	}
+
+	/**
+	 * Returns the number of inserts ignored because the entry alone
+	 * weighed more than the cap.
+	 * @return the rejection count.
+	 */
+	public long getRejected() {
+		return rejected;
+	}
+
+	/**
+	 * Returns the total weight of the entries.
+	 * @return the current weight.
+	 */
+	public long getWeight() {
+		return weight;
+	}
+
+	/**
+	 * Insert a key-value pair, evicting other entries first if needed.
+	 * Duplicate keys are ignored, and so are entries which on their own
+	 * weigh more than the cap.
+	 */
+	public void insert(K key, E element) {
+		long entryWeight = weigher.weigh(key, element);
+		if(entryWeight > maxWeight) {
+			rejected++;
+			return;
+		}
+		if(dict.search(key) != null) {
+			return; //cannot have duplicates
+		}
+		//make room first, so that the new entry is never its own victim
+		//(with LFU it would be, as the only entry never searched).
+		while(weight + entryWeight > maxWeight) {
+			remove(policy.victim());
+			evicted++;
+		}
+		BoundedEntry<E, K> entry = new BoundedEntry<E, K>(key, element, entryWeight);
+		dict.insert(key, entry);
+		policy.inserted(entry);
+		weight += entryWeight;
+	}
+
+	/**
+	 * Print the Dictionary in sorted order (as determined by the keys).
+	 */
+	public void printTree() {
+		System.out.println("\nPrinting the Bounded Dictionary below...");
+		ExportSink.print(this);
+	}
+
+	/**
+	 * Deletes an entry and forgets about it.
+	 * @param entry the entry to delete.
+	 */
+	void remove(BoundedEntry<E, K> entry) {
+		dict.delete(entry.getKey());
+		policy.removed(entry);
+		weight -= entry.getWeight();
+	}
+
+	/**
+	 * Returns the element with the given key, or null if not found,
+	 * and tells the policy that the entry was used.
+	 */
+	public E search(K key) {
+		BoundedEntry<E, K> entry = dict.search(key);
+		if(entry == null) {
+			return null;
+		}
+		policy.accessed(entry);
+		return entry.getElement();
+	}
+
+	/**
+	 * Hands every entry to the visitor in sorted order.
+	 * This does not count as using the entries.
+	 * @param visitor the visitor to give the entries to.
+	 */
+	public void traverse(final DictionaryVisitor<E, K> visitor) throws IOException {
+		dict.traverse(new DictionaryVisitor<BoundedEntry<E, K>, K>() {
+			public void visit(K key, BoundedEntry<E, K> entry) throws IOException {
+				visitor.visit(key, entry.getElement());
+			}
+		});
+	}
+}
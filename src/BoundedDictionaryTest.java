@@ -0,0 +1,87 @@
+// The "BoundedDictionaryTest" class.
+// This class fills BoundedDictionaries with each eviction policy,
+// searches every resident entry so that they are all in use, and then
+// inserts new keys one at a time. Each new key must still be there
+// right after its insert (LFU used to evict it at once, as the only
+// entry never searched), the cap must hold, and the entries evicted
+// must be the ones the policy says.
+// The capacity can be given as the first argument.
+public class BoundedDictionaryTest {
+	protected static SortableString key(int i) {
+		return new SortableString("key" + i);
+	} // key method
+
+	protected static BoundedDictionary<Integer, SortableString> bounded(
+			long capacity, EvictionPolicy<Integer, SortableString> policy) {
+		return new BoundedDictionary<Integer, SortableString>(
+				new AVLDictionary<BoundedEntry<Integer, SortableString>, SortableString>(),
+				capacity, policy);
+	} // bounded method
+
+	public static void main(String[] args) {
+		int capacity = (args.length > 0) ? Integer.parseInt(args[0]) : 100;
+		int added = 10;
+		String[] names = { "LRU", "LFU", "FIFO" };
+		int wrong = 0;
+		for (int p = 0; p < names.length; p++) {
+			EvictionPolicy<Integer, SortableString> policy = (p == 0) ? EvictionPolicy
+					.<Integer, SortableString> lru()
+					: (p == 1) ? EvictionPolicy.<Integer, SortableString> lfu()
+							: EvictionPolicy.<Integer, SortableString> fifo();
+			BoundedDictionary<Integer, SortableString> dict = bounded(capacity, policy);
+			for (int i = 0; i < capacity; i++)
+				dict.insert(key(i), i);
+			// key i is searched i + 1 times, so LFU ranks them by number
+			for (int i = 0; i < capacity; i++)
+				for (int j = 0; j <= i; j++)
+					dict.search(key(i));
+			int lost = 0;
+			for (int i = capacity; i < capacity + added; i++) {
+				dict.insert(key(i), i);
+				if (dict.getWeight() > capacity)
+					wrong++;
+				if (dict.search(key(i)) == null)
+					lost++;
+			}
+			// LRU and FIFO evict the first ADDED of the old keys, the least
+			// recently used or the oldest. LFU evicts key 0, the least used,
+			// and after that each new key (searched once) on the next insert
+			int kept = 0;
+			for (int i = 0; i < capacity + added; i++) {
+				boolean gone = (p == 1) ? (i == 0 || (i >= capacity && i < capacity
+						+ added - 1)) : i < added;
+				boolean found = dict.search(key(i)) != null;
+				if (found)
+					kept++;
+				if (found == gone)
+					wrong++;
+			}
+			if (lost > 0 || kept != capacity || dict.getEvicted() != added)
+				wrong++;
+			System.out.println(names[p] + ": " + lost + " of " + added
+					+ " new keys evicted by their own insert, " + kept
+					+ " kept, " + dict.getEvicted() + " evicted");
+		}
+
+		// a heavy entry evicts as many light ones as it needs, but not itself
+		BoundedDictionary<Integer, SortableString> dict = new BoundedDictionary<Integer, SortableString>(
+				new AVLDictionary<BoundedEntry<Integer, SortableString>, SortableString>(),
+				capacity, EvictionPolicy.<Integer, SortableString> lfu(),
+				new Weigher<Integer, SortableString>() {
+					public long weigh(SortableString key, Integer element) {
+						return element;
+					}
+				});
+		for (int i = 0; i < capacity; i++)
+			if (dict.getWeight() + 1 <= capacity)
+				dict.insert(key(i), 1);
+		dict.search(key(0));
+		dict.insert(key(-1), capacity / 2);
+		if (dict.search(key(-1)) == null || dict.getWeight() != capacity
+				|| dict.getEvicted() != capacity / 2)
+			wrong++;
+		System.out.println("weighted: " + dict.getEvicted() + " evicted, weight "
+				+ dict.getWeight());
+		System.out.println(wrong + " wrong");
+	} // main method
+} /* BoundedDictionaryTest class */
@@ -0,0 +1,37 @@
+// The "BoundedEntry" class.
+// An element stored by a BoundedDictionary, together with its key, its
+// weight, and its place in the EvictionPolicy's lists.
+public class BoundedEntry<E, K extends Sortable> {
+	protected final K key;
+
+	protected final E element;
+
+	protected final long weight;
+
+	// Links used by the eviction policy.
+	protected BoundedEntry<E, K> previous, next;
+
+	protected LFUEvictionPolicy.Bucket<E, K> bucket; // only used by LFU.
+
+	public BoundedEntry(K key, E element, long weight) {
+		this.key = key;
+		this.element = element;
+		this.weight = weight;
+	} // BoundedEntry constructor
+
+	public K getKey() {
+		return key;
+	} // getKey method
+
+	public E getElement() {
+		return element;
+	} // getElement method
+
+	public long getWeight() {
+		return weight;
+	} // getWeight method
+
+	public String toString() {
+		return element.toString();
+	} // toString method
+} /* BoundedEntry class */
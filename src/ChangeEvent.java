@@ -0,0 +1,53 @@
+import java.io.Serializable;
+
+// The "ChangeEvent" class.
+// One insert or delete published by a PublishingDictionary, numbered
+// with its place in the change stream (the first change is 1). The
+// element of a delete is null. It is Serializable so that it can be
+// sent to followers over a socket, as long as the key and element are.
+public class ChangeEvent<E, K extends Sortable> implements Serializable {
+	private static final long serialVersionUID = 1L;
+
+	public static final int INSERT = 1;
+
+	public static final int DELETE = 2;
+
+	protected final long seq;
+
+	protected final int type; // INSERT or DELETE.
+
+	protected final K key;
+
+	protected final E element;
+
+	public ChangeEvent(long seq, int type, K key, E element) {
+		this.seq = seq;
+		this.type = type;
+		this.key = key;
+		this.element = element;
+	} // ChangeEvent constructor
+
+	public long getSeq() {
+		return seq;
+	} // getSeq method
+
+	public int getType() {
+		return type;
+	} // getType method
+
+	public K getKey() {
+		return key;
+	} // getKey method
+
+	public E getElement() {
+		return element;
+	} // getElement method
+
+	// Makes the same change to another dictionary
+	public void applyTo(Dictionary<E, K> dict) {
+		if (type == INSERT)
+			dict.insert(key, element);
+		else
+			dict.delete(key);
+	} // applyTo method
+} /* ChangeEvent class */
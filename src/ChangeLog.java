@@ -0,0 +1,57 @@
+import java.util.List;
+
+// The "ChangeLog" class.
+// The latest changes made to a dictionary, in order, kept in a ring
+// buffer of fixed capacity. Followers which fall further behind than
+// the capacity have to start again from a snapshot. Readers can wait
+// for new changes to be appended.
+public class ChangeLog<E, K extends Sortable> {
+	protected final ChangeEvent<E, K>[] ring;
+
+	protected long head = 0; // the sequence number of the latest change.
+
+	@SuppressWarnings("unchecked")
+	public ChangeLog(int capacity) {
+		this.ring = (ChangeEvent<E, K>[]) new ChangeEvent<?, ?>[capacity];
+	} // ChangeLog constructor
+
+	// Numbers the change, keeps it and wakes up any waiting readers
+	public synchronized long append(int type, K key, E element) {
+		head++;
+		ring[(int) (head % ring.length)] = new ChangeEvent<E, K>(head, type,
+				key, element);
+		notifyAll();
+		return head;
+	} // append method
+
+	public synchronized long getHead() {
+		return head;
+	} // getHead method
+
+	// The sequence number of the oldest change still kept
+	public synchronized long getOldest() {
+		return Math.max(1, head - ring.length + 1);
+	} // getOldest method
+
+	// Adds up to max changes after the given one to events, waiting up
+	// to timeoutMillis if there are none yet, and returns the head
+	public synchronized long read(long after, int max, long timeoutMillis,
+			List<ChangeEvent<E, K>> events) throws InterruptedException {
+		if (after < getOldest() - 1)
+			throw new IllegalArgumentException("changes after " + after
+					+ " are no longer kept");
+		long deadline = System.currentTimeMillis() + timeoutMillis;
+		long left = timeoutMillis;
+		while (head <= after && left > 0) {
+			wait(left);
+			left = deadline - System.currentTimeMillis();
+		}
+		// the writer may have lapped the reader while it waited
+		if (after < getOldest() - 1)
+			throw new IllegalArgumentException("changes after " + after
+					+ " are no longer kept");
+		for (long seq = after + 1; seq <= head && seq <= after + max; seq++)
+			events.add(ring[(int) (seq % ring.length)]);
+		return head;
+	} // read method
+} /* ChangeLog class */
@@ -0,0 +1,200 @@
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.SocketException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * This class serves a ChangeSource (usually a PublishingDictionary) to
+ * Followers in other processes, which connect to it with a
+ * RemoteChangeSource. Each connection gets its own thread, which answers
+ * snapshot and poll requests one at a time.
+ *
+ * Keys and elements are sent with Java serialization, so they must be
+ * Serializable. Nothing is authenticated, so by default the server only
+ * listens on the loopback address; give another bind address only on a
+ * network where every host may read the dictionary.
+ *
+ * @author Ryan Seys
+ */
+public class ChangeLogServer<E, K extends Sortable> {
+	// the requests a RemoteChangeSource can make.
+	static final int SNAPSHOT = 1;
+
+	static final int POLL = 2;
+
+	// how many connections may wait to be accepted.
+	static final int BACKLOG = 50;
+
+	// how many snapshot entries are sent between resets of the stream.
+	static final int RESET_EVERY = 1024;
+
+	protected final ChangeSource<E, K> source;
+
+	protected final ServerSocket server;
+
+	protected volatile boolean running = true;
+
+	protected volatile Exception failure; // the last error which closed a connection.
+
+	/**
+	 * Constructor which starts accepting connections from this machine only.
+	 *
+	 * @param source the changes to serve.
+	 * @param port the port to listen on, or 0 for any free port.
+	 */
+	public ChangeLogServer(ChangeSource<E, K> source, int port) throws IOException {
+		this(source, port, InetAddress.getByName(null)); //the loopback address
+	}
+
+	/**
+	 * Constructor which starts accepting connections on the given address.
+	 *
+	 * @param source the changes to serve.
+	 * @param port the port to listen on, or 0 for any free port.
+	 * @param bindAddress the local address to listen on, or null for all of them.
+	 */
+	public ChangeLogServer(ChangeSource<E, K> source, int port, InetAddress bindAddress) throws IOException {
+		this.source = source;
+		this.server = new ServerSocket(port, BACKLOG, bindAddress);
+		Thread acceptor = new Thread("ChangeLogServer acceptor") {
+			public void run() {
+				accept();
+			}
+		};
+		acceptor.setDaemon(true);
+		acceptor.start();
+	}
+
+	/**
+	 * Accepts connections until the server is closed.
+	 */
+	void accept() {
+		while(running) {
+			try {
+				final Socket socket = server.accept();
+				Thread handler = new Thread("ChangeLogServer connection") {
+					public void run() {
+						serve(socket);
+					}
+				};
+				handler.setDaemon(true);
+				handler.start();
+			}
+			catch(IOException e) {
+				//closed, or the connection failed before it was set up.
+			}
+		}
+	}
+
+	/**
+	 * Stops accepting connections. Connections already made are closed
+	 * by their followers.
+	 */
+	public void close() throws IOException {
+		running = false;
+		server.close();
+	}
+
+	/**
+	 * Returns the last error which made the server close a connection,
+	 * other than the follower going away.
+	 * @return the failure, or null.
+	 */
+	public Exception getFailure() {
+		return failure;
+	}
+
+	/**
+	 * Returns the port the server is listening on.
+	 * @return the local port.
+	 */
+	public int getPort() {
+		return server.getLocalPort();
+	}
+
+	/**
+	 * Answers the requests from one connection until it is closed.
+	 * @param socket the connection to a RemoteChangeSource.
+	 */
+	void serve(Socket socket) {
+		try {
+			socket.setTcpNoDelay(true);
+			final ObjectOutputStream out = new ObjectOutputStream(new BufferedOutputStream(socket.getOutputStream()));
+			out.flush(); //send the stream header before waiting for the other side's.
+			ObjectInputStream in = new ObjectInputStream(new BufferedInputStream(socket.getInputStream()));
+			List<ChangeEvent<E, K>> events = new ArrayList<ChangeEvent<E, K>>();
+			while(true) {
+				int request = in.readInt();
+				if(request == SNAPSHOT) {
+					long seq = source.snapshot(new DictionaryVisitor<E, K>() {
+						int sent = 0;
+
+						public void visit(K key, E element) throws IOException {
+							out.writeBoolean(true);
+							out.writeObject(key);
+							out.writeObject(element);
+							//forget the objects sent now and then, or the
+							//stream would hold on to the whole snapshot.
+							if(++sent % RESET_EVERY == 0) {
+								out.reset();
+							}
+						}
+					});
+					out.writeBoolean(false); //no more entries.
+					out.writeLong(seq);
+				}
+				else {
+					long after = in.readLong();
+					int max = in.readInt();
+					long timeoutMillis = in.readLong();
+					try {
+						long head = source.poll(after, max, timeoutMillis, events);
+						out.writeBoolean(true);
+						out.writeLong(head);
+						out.writeInt(events.size());
+						for(ChangeEvent<E, K> event : events) {
+							out.writeObject(event);
+						}
+					}
+					catch(IllegalArgumentException e) {
+						out.writeBoolean(false);
+						out.writeUTF(e.getMessage());
+					}
+					events.clear();
+				}
+				out.flush();
+				out.reset(); //forget the objects sent, so they can be collected.
+			}
+		}
+		catch(EOFException e) {
+			//the follower closed the connection.
+		}
+		catch(SocketException e) {
+			//the connection was reset or closed.
+		}
+		catch(InterruptedException e) {
+			//only happens if someone interrupts this thread to stop it.
+		}
+		catch(Exception e) {
+			//an element which cannot be serialized, a bad request and so on:
+			//the follower sees the connection close and fails too.
+			failure = e;
+		}
+		finally {
+			try {
+				socket.close();
+			}
+			catch(IOException e) {
+				//already closed.
+			}
+		}
+	}
+}
@@ -0,0 +1,22 @@
+import java.io.IOException;
+import java.util.List;
+
+// The "ChangeSource" interface.
+// Where a Follower gets its changes from: either a PublishingDictionary
+// in the same process, or a RemoteChangeSource connected to one through
+// a ChangeLogServer.
+public interface ChangeSource<E, K extends Sortable> {
+	// hand every entry to VISITOR in sorted order, and return the sequence
+	// number of the last change the entries include.
+	public abstract long snapshot(DictionaryVisitor<E, K> visitor)
+			throws IOException;
+
+	// add up to MAX changes which come after sequence number AFTER to
+	// EVENTS, waiting up to TIMEOUTMILLIS for the first one, and return
+	// the sequence number of the latest change. Throws an
+	// IllegalArgumentException if the changes after AFTER are no longer
+	// kept, in which case a new snapshot is needed.
+	public abstract long poll(long after, int max, long timeoutMillis,
+			List<ChangeEvent<E, K>> events) throws IOException,
+			InterruptedException;
+} /* ChangeSource interface */
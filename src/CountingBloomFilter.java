@@ -0,0 +1,140 @@
+// The "CountingBloomFilter" class.
+// A probabilistic set of keys which can answer "definitely not present"
+// or "maybe present". Each key sets K counters, all chosen inside one
+// 64-counter block (one cache line), so a lookup touches a single block.
+// Keys are not spread evenly over the blocks, and a crowded block gives
+// many more false positives than an even spread would, so the filter is
+// sized for the rate of the blocks as they really fill up. At a 1% rate
+// this takes about a third more counters than an unblocked filter, and
+// at 0.1% about three quarters more.
+// Counters (rather than bits) let keys be removed again. A counter which
+// reaches 255 stays there, so it can never cause a false "not present".
+// Keys are hashed with hashCode, which must agree with compareTo.
+public class CountingBloomFilter {
+	public static final int BLOCK = 64; // counters per block.
+
+	protected final byte[] counters;
+
+	protected final int blocks;
+
+	protected final int hashes; // counters set per key.
+
+	// Sizes the filter for EXPECTED keys at the given false positive rate,
+	// using the fewest blocks that any number of counters per key allows
+	public CountingBloomFilter(int expected, double falsePositiveRate) {
+		expected = Math.max(expected, 1);
+		double ln2 = Math.log(2);
+		// an unblocked filter needs this many counters, a blocked one more
+		long least = (long) Math.ceil(-expected * Math.log(falsePositiveRate)
+				/ (ln2 * ln2));
+		long bestBlocks = Long.MAX_VALUE;
+		int bestHashes = 1;
+		for (int k = 1; k <= 16; k++) {
+			long tried = Math.max(1, least / BLOCK);
+			while (tried < bestBlocks
+					&& falsePositiveRate(tried, k, expected) > falsePositiveRate)
+				tried += tried / 32 + 1;
+			if (tried < bestBlocks) {
+				bestBlocks = tried;
+				bestHashes = k;
+			}
+		}
+		if (bestBlocks > Integer.MAX_VALUE / BLOCK)
+			throw new IllegalArgumentException("Too many keys for the rate "
+					+ falsePositiveRate);
+		blocks = (int) bestBlocks;
+		counters = new byte[blocks * BLOCK];
+		hashes = bestHashes;
+	} // CountingBloomFilter constructor
+
+	// Returns the expected false positive rate of BLOCKS blocks holding
+	// EXPECTED keys which set K counters each. The number of keys in a
+	// block follows a Poisson distribution; a block with j keys has each
+	// counter set with chance 1 - (1 - k/BLOCK)^j
+	public static double falsePositiveRate(long blocks, int k, int expected) {
+		double perBlock = (double) expected / blocks;
+		double unset = 1 - (double) k / BLOCK;
+		double chance = Math.exp(-perBlock); // of a block holding j keys
+		double rate = 0;
+		int last = (int) (perBlock + 12 * Math.sqrt(perBlock) + 12);
+		for (int j = 0; j <= last; j++) {
+			rate += chance * Math.pow(1 - Math.pow(unset, j), k);
+			chance *= perBlock / (j + 1);
+		}
+		return rate;
+	} // falsePositiveRate method
+
+	// Spreads the bits of a hashCode (the MurmurHash3 finaliser)
+	protected static int mix(int h) {
+		h ^= h >>> 16;
+		h *= 0x85ebca6b;
+		h ^= h >>> 13;
+		h *= 0xc2b2ae35;
+		h ^= h >>> 16;
+		return h;
+	} // mix method
+
+	// Returns the first counter of the key's block. The top bits of the
+	// hash pick the block, so they are not the ones used inside it
+	protected int block(int h) {
+		return (int) (((h & 0xffffffffL) * blocks) >>> 32) * BLOCK;
+	} // block method
+
+	// Returns a mask with HASHES different bits set, one for each of the
+	// key's counters in its block. They are picked by a small generator
+	// seeded from a second hash of the key, skipping any picked twice,
+	// so that keys sharing a block share as few counters as by chance
+	protected long pick(int h) {
+		long mask = 0;
+		int x = mix(h ^ 0x9e3779b9);
+		for (int picked = 0; picked < hashes;) {
+			x = x * 0x2c1b3c6d + 0x297a2d39;
+			long bit = 1L << (x >>> 26); // the top 6 bits are the best
+			if ((mask & bit) == 0) {
+				mask |= bit;
+				picked++;
+			}
+		}
+		return mask;
+	} // pick method
+
+	// Adds 1 (ADD) or -1 to each of the key's counters
+	protected void update(Object key, boolean add) {
+		int h = mix(key.hashCode());
+		int base = block(h);
+		for (long mask = pick(h); mask != 0; mask &= mask - 1) {
+			int index = base + Long.numberOfTrailingZeros(mask);
+			int count = counters[index] & 0xff;
+			if (count == 255)
+				continue; // saturated, left as is
+			counters[index] = (byte) (add ? count + 1 : count - 1);
+		}
+	} // update method
+
+	public void add(Object key) {
+		update(key, true);
+	} // add method
+
+	// Must only be called for keys which were added
+	public void remove(Object key) {
+		update(key, false);
+	} // remove method
+
+	public boolean mightContain(Object key) {
+		int h = mix(key.hashCode());
+		int base = block(h);
+		for (long mask = pick(h); mask != 0; mask &= mask - 1) {
+			if (counters[base + Long.numberOfTrailingZeros(mask)] == 0)
+				return false;
+		}
+		return true;
+	} // mightContain method
+
+	public int getHashes() {
+		return hashes;
+	} // getHashes method
+
+	public int getSize() {
+		return counters.length;
+	} // getSize method
+} /* CountingBloomFilter class */
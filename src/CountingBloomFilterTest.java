@@ -0,0 +1,49 @@
+import java.util.Random;
+
+// The "CountingBloomFilterTest" class.
+// This class fills CountingBloomFilters sized for several false
+// positive rates with random keys, removes some of them, and checks
+// that every key left is still reported as maybe present and that the
+// share of missing keys let through is no more than the rate asked for
+// (with a little room for chance).
+// Arguments: keys (default 100000), lookups of missing keys (default
+// 1000000).
+public class CountingBloomFilterTest {
+	public static void main(String[] args) {
+		int size = (args.length > 0) ? Integer.parseInt(args[0]) : 100000;
+		int lookups = (args.length > 1) ? Integer.parseInt(args[1]) : 1000000;
+		int wrong = 0;
+		for (double target : new double[] { 0.05, 0.01, 0.001, 0.0001 }) {
+			CountingBloomFilter filter = new CountingBloomFilter(size, target);
+			Random random = new Random(11);
+			// even numbers are added, odd ones never are
+			SortableString[] keys = new SortableString[size + size / 10];
+			for (int i = 0; i < keys.length; i++) {
+				keys[i] = new SortableString(Long.toString(random.nextInt(1 << 30) * 2L));
+				filter.add(keys[i]);
+			}
+			// take the extra tenth out again, leaving SIZE keys
+			for (int i = size; i < keys.length; i++)
+				filter.remove(keys[i]);
+			int missed = 0;
+			for (int i = 0; i < size; i++)
+				if (!filter.mightContain(keys[i]))
+					missed++;
+			int through = 0;
+			for (int i = 0; i < lookups; i++)
+				if (filter.mightContain(new SortableString(Long.toString(random
+						.nextInt(1 << 30) * 2L + 1))))
+					through++;
+			double rate = (double) through / lookups;
+			System.out.println("target " + target + ": measured " + rate + " with "
+					+ filter.getSize() / (double) size + " counters per key, "
+					+ filter.getHashes() + " per key set; " + missed
+					+ " keys reported missing");
+			// the expected number let through, plus 4 standard deviations
+			double allowed = target * lookups + 4 * Math.sqrt(target * lookups);
+			if (missed > 0 || through > allowed)
+				wrong++;
+		}
+		System.out.println(wrong + " wrong");
+	} // main method
+} /* CountingBloomFilterTest class */
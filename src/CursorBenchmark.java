@@ -0,0 +1,75 @@
+import java.util.Random;
+
+// The "CursorBenchmark" class.
+// This class compares a RedBlackDictionary used from the root with one
+// used through a RedBlackCursor, on two near-sequential workloads:
+// time-ordered ingestion (rising keys, with some arriving a little
+// late) using insert or insertAtCursor, and a merge-scan which looks
+// up a sorted list of keys using search or seek.
+// The number of keys can be given as the first argument.
+public class CursorBenchmark {
+	protected static SortableString[] arrivals;
+
+	protected static void fill(int size, long seed) {
+		// Rising keys, where one in ten is a few places late
+		Random random = new Random(seed);
+		arrivals = new SortableString[size];
+		for (int i = 0; i < size; i++) {
+			int late = (random.nextInt(10) == 0) ? random.nextInt(8) : 0;
+			arrivals[i] = key(Math.max(i - late, 0) * 2 + ((late > 0) ? 1 : 0));
+		}
+	} // fill method
+
+	protected static SortableString key(int i) {
+		// zero-padded so that string order is number order
+		String s = Integer.toString(i);
+		return new SortableString("0000000000".substring(s.length()) + s);
+	} // key method
+
+	protected static void report(String name, int ops, long nanos) {
+		System.out.println(name + ": " + (long) (ops / (nanos / 1e9)) + " ops/s");
+	} // report method
+
+	public static void main(String[] args) {
+		int size = (args.length > 0) ? Integer.parseInt(args[0]) : 1000000;
+		fill(size, 5);
+		for (int round = 0; round < 2; round++) {
+			boolean print = (round == 1); // the first round warms up
+
+			RedBlackDictionary<String, SortableString> plain = new RedBlackDictionary<String, SortableString>();
+			long start = System.nanoTime();
+			for (SortableString key : arrivals)
+				plain.insert(key, key.toString());
+			if (print)
+				report("Ingestion with insert", size, System.nanoTime() - start);
+
+			RedBlackDictionary<String, SortableString> fingered = new RedBlackDictionary<String, SortableString>();
+			RedBlackCursor<String, SortableString> cursor = fingered.cursor();
+			start = System.nanoTime();
+			for (SortableString key : arrivals)
+				cursor.insertAtCursor(key, key.toString());
+			if (print)
+				report("Ingestion with insertAtCursor", size, System.nanoTime() - start);
+
+			// merge-scan: every third key in order, a third of them missing
+			int found = 0;
+			start = System.nanoTime();
+			for (int i = 0; i < size * 2; i += 3)
+				if (plain.search(key(i)) != null)
+					found++;
+			if (print)
+				report("Merge-scan with search (" + found + " found)",
+						size * 2 / 3, System.nanoTime() - start);
+
+			found = 0;
+			cursor = fingered.cursor();
+			start = System.nanoTime();
+			for (int i = 0; i < size * 2; i += 3)
+				if (cursor.seek(key(i)))
+					found++;
+			if (print)
+				report("Merge-scan with seek (" + found + " found)",
+						size * 2 / 3, System.nanoTime() - start);
+		}
+	} // main method
+} /* CursorBenchmark class */
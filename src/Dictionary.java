@@ -1,3 +1,5 @@
+import java.io.IOException;
+
 public interface Dictionary<E, K extends Sortable> {
 	// search for an entry with key KEY and return the object
 	public abstract E search(K key);
@@ -13,4 +15,8 @@ public interface Dictionary<E, K extends Sortable> {
 
 	// return the depth of the underlying tree
 	public abstract int depth();
+
+	// hand every entry to VISITOR in sorted order (as determined by the keys)
+	public abstract void traverse(DictionaryVisitor<E, K> visitor)
+			throws IOException;
 }
\ No newline at end of file
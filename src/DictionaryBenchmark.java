@@ -0,0 +1,102 @@
+import java.util.Random;
+
+// The "DictionaryBenchmark" class.
+// This class compares the implementations of the Dictionary
+// interface on three workloads: insert-heavy (only inserts),
+// delete-heavy (fill, then delete everything) and mixed (random
+// searches, inserts and deletes). For each one it prints the
+// throughput, the number of rotations done and the final depth.
+// The number of keys can be given as the first argument.
+public class DictionaryBenchmark {
+	protected static final String[] NAMES = { "BST", "AVL", "Red-Black", "WAVL" };
+
+	protected static SortableString[] keys;
+
+	protected static void fill(int size, long seed) {
+		// Make SIZE distinct keys in random order
+		Random random = new Random(seed);
+		keys = new SortableString[size];
+		for (int i = 0; i < size; i++)
+			keys[i] = new SortableString(Integer.toString(i, 36));
+		for (int i = size - 1; i > 0; i--) {
+			int j = random.nextInt(i + 1);
+			SortableString s = keys[i];
+			keys[i] = keys[j];
+			keys[j] = s;
+		}
+	} // fill method
+
+	protected static Dictionary<String, SortableString> create(int engine) {
+		switch (engine) {
+		case 0:
+			return new BSTDictionary<String, SortableString>();
+		case 1:
+			return new AVLDictionary<String, SortableString>();
+		case 2:
+			return new RedBlackDictionary<String, SortableString>();
+		default:
+			return new WAVLDictionary<String, SortableString>();
+		}
+	} // create method
+
+	protected static long rotations(Dictionary<String, SortableString> dict) {
+		if (dict instanceof AVLDictionary)
+			return ((AVLDictionary<String, SortableString>) dict).getRotations();
+		if (dict instanceof RedBlackDictionary)
+			return ((RedBlackDictionary<String, SortableString>) dict).getRotations();
+		if (dict instanceof WAVLDictionary)
+			return ((WAVLDictionary<String, SortableString>) dict).getRotations();
+		return 0;
+	} // rotations method
+
+	protected static void report(String workload, int engine, long ops,
+			long nanos, long rotations, Dictionary<String, SortableString> dict) {
+		double seconds = nanos / 1e9;
+		System.out.println(workload + " " + NAMES[engine] + ": "
+				+ (long) (ops / seconds) + " ops/s, " + rotations
+				+ " rotations, depth " + dict.depth());
+	} // report method
+
+	public static void main(String[] args) {
+		int size = (args.length > 0) ? Integer.parseInt(args[0]) : 50000;
+		fill(size, 42);
+
+		for (int engine = 0; engine < NAMES.length; engine++) {
+			// Insert-heavy: insert every key
+			Dictionary<String, SortableString> dict = create(engine);
+			long start = System.nanoTime();
+			for (int i = 0; i < size; i++)
+				dict.insert(keys[i], keys[i].toString());
+			report("Insert-heavy", engine, size, System.nanoTime() - start,
+					rotations(dict), dict);
+
+			// Delete-heavy: delete all but one key from the full tree
+			long before = rotations(dict);
+			start = System.nanoTime();
+			for (int i = size - 1; i > 0; i--)
+				dict.delete(keys[i]);
+			report("Delete-heavy", engine, size - 1, System.nanoTime() - start,
+					rotations(dict) - before, dict);
+
+			// Mixed: half searches, a quarter inserts, a quarter deletes
+			dict = create(engine);
+			for (int i = 0; i < size / 2; i++)
+				dict.insert(keys[i], keys[i].toString());
+			Random random = new Random(7);
+			before = rotations(dict);
+			start = System.nanoTime();
+			for (int i = 0; i < size; i++) {
+				SortableString key = keys[random.nextInt(size)];
+				int op = random.nextInt(4);
+				if (op < 2)
+					dict.search(key);
+				else if (op == 2)
+					dict.insert(key, key.toString());
+				else
+					dict.delete(key);
+			}
+			report("Mixed", engine, size, System.nanoTime() - start,
+					rotations(dict) - before, dict);
+		}
+	} // main method
+} /* DictionaryBenchmark class */
@@ -0,0 +1,9 @@
+import java.io.IOException;
+
+// The "DictionaryVisitor" interface.
+// This interface is used by classes which are handed every entry
+// of a Dictionary in sorted order, such as ExportSink.
+public interface DictionaryVisitor<E, K extends Sortable> {
+	// called once for each entry, in sorted order (as determined by the keys)
+	public abstract void visit(K key, E element) throws IOException;
+} /* DictionaryVisitor interface */
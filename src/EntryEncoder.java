@@ -0,0 +1,65 @@
+import java.io.IOException;
+
+// The "EntryEncoder" class.
+// Decides how one entry of a Dictionary is written to an ExportSink.
+// TEXT matches printTree, CSV writes one quoted "key","element" line
+// per entry, and BINARY writes the key and the element as a 4-byte
+// big-endian length followed by that many bytes of UTF-8.
+// Other formats can be added by extending this class.
+public abstract class EntryEncoder {
+	public static final EntryEncoder TEXT = new EntryEncoder() {
+		public void encode(Object key, Object element, ExportSink<?, ?> out)
+				throws IOException {
+			out.append("key: ");
+			out.append(key.toString());
+			out.append(" element: ");
+			out.append(element.toString());
+			out.append('\n');
+		}
+	};
+
+	public static final EntryEncoder CSV = new EntryEncoder() {
+		public void encode(Object key, Object element, ExportSink<?, ?> out)
+				throws IOException {
+			quote(key.toString(), out);
+			out.append(',');
+			quote(element.toString(), out);
+			out.append('\n');
+		}
+
+		// Quotes a field, doubling any quotes inside it
+		protected void quote(String field, ExportSink<?, ?> out)
+				throws IOException {
+			out.append('"');
+			for (int i = 0; i < field.length(); i++) {
+				char c = field.charAt(i);
+				if (c == '"')
+					out.append('"');
+				out.append(c);
+			}
+			out.append('"');
+		}
+	};
+
+	public static final EntryEncoder BINARY = new EntryEncoder() {
+		public void encode(Object key, Object element, ExportSink<?, ?> out)
+				throws IOException {
+			out.writeUTF(key.toString());
+			out.writeUTF(element.toString());
+		}
+
+		public boolean isBinary() {
+			return true;
+		}
+	};
+
+	// Writes one entry to OUT
+	public abstract void encode(Object key, Object element,
+			ExportSink<?, ?> out) throws IOException;
+
+	// Whether the encoder writes bytes (with writeInt), rather than only
+	// characters, so it needs an ExportSink over bytes
+	public boolean isBinary() {
+		return false;
+	} // isBinary method
+} /* EntryEncoder class */
@@ -0,0 +1,334 @@
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutionException;
+
+/**
+ * This class gives one thread (the owner) sole use of a dictionary.
+ * Other threads submit searches, inserts and deletes to a bounded queue
+ * and get a Future back, so the dictionary itself needs no locking.
+ *
+ * The owner takes requests off the queue in batches and sorts each batch
+ * by key before running it, so neighbouring keys are handled together.
+ * The sort is stable, so requests for the same key still run in the
+ * order they were submitted.
+ *
+ * If the dictionary is a VersionedDictionary, searches skip the queue
+ * and read its latest committed version directly.
+ *
+ * @author Ryan Seys
+ */
+public class EventLoopDictionary<E, K extends Sortable> implements Dictionary<E, K> {
+	protected final Dictionary<E, K> dict; // only used by the owner thread.
+
+	protected final ArrayBlockingQueue<Request<?>> queue;
+
+	protected final int maxBatch; // the most requests handled in one batch.
+
+	protected final Thread owner;
+
+	protected volatile boolean running = true;
+
+	protected volatile long batches = 0; // the number of batches handled.
+
+	protected volatile long requests = 0; // the number of requests handled.
+
+	// orders requests by key, requests without a key are never sorted.
+	protected final Comparator<Request<?>> byKey = new Comparator<Request<?>>() {
+		public int compare(Request<?> a, Request<?> b) {
+			return a.sortKey.compareTo(b.sortKey);
+		}
+	};
+
+	/**
+	 * Constructor which starts the owner thread.
+	 *
+	 * @param dict the dictionary, which must not be used by anyone else.
+	 * @param capacity how many requests may wait before submitters block.
+	 * @param maxBatch the most requests the owner handles in one batch.
+	 */
+	public EventLoopDictionary(Dictionary<E, K> dict, int capacity, int maxBatch) {
+		this.dict = dict;
+		this.queue = new ArrayBlockingQueue<Request<?>>(capacity);
+		this.maxBatch = maxBatch;
+		this.owner = new Thread("EventLoopDictionary owner") {
+			public void run() {
+				loop();
+			}
+		};
+		owner.setDaemon(true);
+		owner.start();
+	}
+
+	/**
+	 * Delete an entry with key passed as the parameter,
+	 * waiting until the owner has done it.
+	 * @param key The key we wish to delete from this dictionary.
+	 */
+	public void delete(K key) {
+		deleteAsync(key).join();
+	}
+
+	/**
+	 * Submits a delete to the owner.
+	 * @param key The key we wish to delete from this dictionary.
+	 * @return a Future which completes once the entry is deleted.
+	 */
+	public PendingResult<Void> deleteAsync(final K key) {
+		return submit(new Request<Void>(key) {
+			Void apply() {
+				dict.delete(key);
+				return null;
+			}
+		});
+	}
+
+	/**
+	 * Returns the depth of the underlying tree, as seen by the owner.
+	 * @return the depth of the tree in integer form.
+	 */
+	public int depth() {
+		return submit(new Request<Integer>(null) {
+			Integer apply() {
+				return dict.depth();
+			}
+		}).join();
+	}
+
+	/**
+	 * Returns the number of batches handled so far.
+	 * @return the batch count.
+	 */
+	public long getBatches() {
+		return batches;
+	}
+
+	/**
+	 * Returns the number of requests handled so far.
+	 * @return the request count.
+	 */
+	public long getRequests() {
+		return requests;
+	}
+
+	/**
+	 * Insert a key-value pair, waiting until the owner has done it.
+	 */
+	public void insert(K key, E element) {
+		insertAsync(key, element).join();
+	}
+
+	/**
+	 * Submits an insert to the owner.
+	 *
+	 * @param key the key value of the entry to be inserted
+	 * @param element the element value of the entry to be inserted
+	 * @return a Future which completes once the entry is inserted.
+	 */
+	public PendingResult<Void> insertAsync(final K key, final E element) {
+		return submit(new Request<Void>(key) {
+			Void apply() {
+				dict.insert(key, element);
+				return null;
+			}
+		});
+	}
+
+	/**
+	 * The owner thread's loop: waits for a request, takes whatever else
+	 * is queued (up to maxBatch), and runs the batch.
+	 */
+	void loop() {
+		ArrayList<Request<?>> batch = new ArrayList<Request<?>>(maxBatch);
+		while(running || !queue.isEmpty()) {
+			try {
+				batch.add(queue.take());
+			}
+			catch(InterruptedException e) {
+				continue; //only shutdown interrupts the owner
+			}
+			queue.drainTo(batch, maxBatch - 1);
+			sortRuns(batch);
+			for(Request<?> request : batch) {
+				request.run();
+			}
+			requests += batch.size();
+			batches++;
+			batch.clear();
+		}
+		//fail anything which slipped in while shutting down.
+		queue.drainTo(batch);
+		for(Request<?> request : batch) {
+			request.fail(new IllegalStateException("The dictionary has been shut down."));
+		}
+	}
+
+	/**
+	 * Print the Dictionary in sorted order (as determined by the keys),
+	 * from the owner thread.
+	 */
+	public void printTree() {
+		submit(new Request<Void>(null) {
+			Void apply() {
+				dict.printTree();
+				return null;
+			}
+		}).join();
+	}
+
+	/**
+	 * Returns the element with the given key, waiting for the owner
+	 * unless the dictionary can be read directly.
+	 */
+	public E search(K key) {
+		return searchAsync(key).join();
+	}
+
+	/**
+	 * Submits a search to the owner, or reads the latest version
+	 * right away if the dictionary is a VersionedDictionary.
+	 *
+	 * @param key the key value of the entry we are looking for.
+	 * @return a Future holding the element, or null if not found.
+	 */
+	public PendingResult<E> searchAsync(final K key) {
+		if(dict instanceof VersionedDictionary) {
+			PendingResult<E> result = new PendingResult<E>();
+			result.complete(dict.search(key));
+			return result;
+		}
+		return submit(new Request<E>(key) {
+			E apply() {
+				return dict.search(key);
+			}
+		});
+	}
+
+	/**
+	 * Stops the owner thread once every queued request has been handled.
+	 * Requests submitted after this are failed.
+	 */
+	public void shutdown() {
+		running = false;
+		owner.interrupt();
+		boolean interrupted = false;
+		while(owner.isAlive()) {
+			try {
+				owner.join();
+			}
+			catch(InterruptedException e) {
+				interrupted = true;
+			}
+		}
+		if(interrupted) {
+			Thread.currentThread().interrupt();
+		}
+	}
+
+	/**
+	 * Sorts each run of requests that have keys, leaving requests without
+	 * a key (such as printing) where they are, between the runs.
+	 * @param batch the requests in the order they were submitted.
+	 */
+	void sortRuns(ArrayList<Request<?>> batch) {
+		int start = 0;
+		for(int i = 0; i <= batch.size(); i++) {
+			if((i == batch.size()) || (batch.get(i).sortKey == null)) {
+				if(i - start > 1) {
+					Collections.sort(batch.subList(start, i), byKey);
+				}
+				start = i + 1;
+			}
+		}
+	}
+
+	/**
+	 * Puts a request on the queue, blocking while the queue is full.
+	 * If shutdown starts while the request is being queued, the owner
+	 * may already have taken the last requests off the queue, so the
+	 * request is taken back off and failed. If it is no longer there,
+	 * the owner has it and will run or fail it.
+	 *
+	 * @param request the request to submit.
+	 * @return the same request, as its Future.
+	 */
+	<T> PendingResult<T> submit(Request<T> request) {
+		if(!running) {
+			request.fail(new IllegalStateException("The dictionary has been shut down."));
+			return request;
+		}
+		boolean interrupted = false;
+		while(true) {
+			try {
+				queue.put(request);
+				break;
+			}
+			catch(InterruptedException e) {
+				interrupted = true;
+			}
+		}
+		if(interrupted) {
+			Thread.currentThread().interrupt();
+		}
+		if(!running && queue.remove(request)) {
+			request.fail(new IllegalStateException("The dictionary has been shut down."));
+		}
+		return request;
+	}
+
+	/**
+	 * Hands every entry to the visitor in sorted order. The visitor is
+	 * called from the owner thread, so no writes run in the meantime.
+	 * @param visitor the visitor to give the entries to.
+	 */
+	public void traverse(final DictionaryVisitor<E, K> visitor) throws IOException {
+		PendingResult<Void> done = submit(new Request<Void>(null) {
+			Void apply() throws IOException {
+				dict.traverse(visitor);
+				return null;
+			}
+		});
+		try {
+			done.get();
+		}
+		catch(ExecutionException e) {
+			if(e.getCause() instanceof IOException) {
+				throw (IOException) e.getCause();
+			}
+			if(e.getCause() instanceof RuntimeException) {
+				throw (RuntimeException) e.getCause();
+			}
+			throw new RuntimeException(e.getCause());
+		}
+		catch(InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new InterruptedIOException("Interrupted while waiting for the traversal.");
+		}
+	}
+
+	/**
+	 * One submitted operation, which is also its own Future.
+	 */
+	abstract static class Request<T> extends PendingResult<T> {
+		final Sortable sortKey; // null if the request is not about one key.
+
+		Request(Sortable sortKey) {
+			this.sortKey = sortKey;
+		}
+
+		// does the work on the owner thread.
+		abstract T apply() throws Exception;
+
+		void run() {
+			try {
+				complete(apply());
+			}
+			catch(Throwable t) {
+				fail(t);
+			}
+		}
+	}
+}
@@ -0,0 +1,32 @@
+// The "EvictionPolicy" class.
+// Decides which entry a BoundedDictionary evicts when it is over its
+// capacity. Every method must take O(1) time. A policy keeps state for
+// one dictionary, so use the factory methods to get a new one each time.
+public abstract class EvictionPolicy<E, K extends Sortable> {
+	// Evicts the least recently inserted or searched entry
+	public static <E, K extends Sortable> EvictionPolicy<E, K> lru() {
+		return new QueueEvictionPolicy<E, K>(true);
+	} // lru method
+
+	// Evicts the least recently inserted entry
+	public static <E, K extends Sortable> EvictionPolicy<E, K> fifo() {
+		return new QueueEvictionPolicy<E, K>(false);
+	} // fifo method
+
+	// Evicts the least often searched entry (the oldest of those tied)
+	public static <E, K extends Sortable> EvictionPolicy<E, K> lfu() {
+		return new LFUEvictionPolicy<E, K>();
+	} // lfu method
+
+	// called after an entry is inserted
+	public abstract void inserted(BoundedEntry<E, K> entry);
+
+	// called when an entry is found by a search
+	public abstract void accessed(BoundedEntry<E, K> entry);
+
+	// called after an entry is deleted or evicted
+	public abstract void removed(BoundedEntry<E, K> entry);
+
+	// return the entry to evict next, or null if there are none
+	public abstract BoundedEntry<E, K> victim();
+} /* EvictionPolicy class */
@@ -0,0 +1,174 @@
+import java.io.IOException;
+import java.util.ArrayList;
+
+/**
+ * This class adds a time to live (TTL) to the entries of another
+ * dictionary, which stores each element in a TimedEntry along with the
+ * time it expires at. A TimingWheel keeps track of the deadlines, so no
+ * operation ever has to scan the tree for expired entries.
+ *
+ * Every operation first moves the wheel forward to the current time and
+ * deletes whatever expired on the way, as one batch. Entries which have
+ * expired but whose wheel slot has not come round yet are left out of
+ * searches and traversals.
+ *
+ * @author Ryan Seys
+ */
+public class ExpiringDictionary<E, K extends Sortable> implements Dictionary<E, K> {
+	protected final Dictionary<TimedEntry<E, K>, K> dict;
+
+	protected final TimingWheel<E, K> wheel;
+
+	protected long expired = 0; // the number of entries removed by expiry.
+
+	// reused by every expiry batch.
+	protected final ArrayList<TimedEntry<E, K>> batch = new ArrayList<TimedEntry<E, K>>();
+
+	/**
+	 * Constructor for the expiring dictionary.
+	 *
+	 * @param dict the (empty) dictionary which stores the timed entries.
+	 * @param tickMillis how often, in milliseconds, the wheel checks for
+	 *        expired entries. Smaller ticks remove entries sooner.
+	 */
+	public ExpiringDictionary(Dictionary<TimedEntry<E, K>, K> dict, long tickMillis) {
+		this.dict = dict;
+		this.wheel = new TimingWheel<E, K>(tickMillis, now());
+	}
+
+	/**
+	 * Delete an entry with key passed as the parameter.
+	 * @param key The key we wish to delete from this dictionary.
+	 */
+	public void delete(K key) {
+		expire();
+		TimedEntry<E, K> entry = dict.search(key);
+		if(entry != null) {
+			wheel.cancel(entry);
+			dict.delete(key);
+		}
+	}
+
+	/**
+	 * Returns the depth of the underlying tree.
+	 * @return the depth of the tree in integer form.
+	 */
+	public int depth() {
+		return dict.depth();
+	}
+
+	/**
+	 * Deletes every entry which has expired since the last call.
+	 * This is done by every other operation, but can also be called
+	 * on its own, such as from a timer, to free memory sooner.
+	 * @return the number of entries deleted.
+	 */
+	public int expire() {
+		wheel.advance(now(), batch);
+		int count = 0;
+		for(TimedEntry<E, K> entry : batch) {
+			//only delete the key if it still belongs to this entry.
+			if(dict.search(entry.getKey()) == entry) {
+				dict.delete(entry.getKey());
+				count++;
+			}
+		}
+		batch.clear();
+		expired += count;
+		return count;
+	}
+
+	/**
+	 * Returns the number of entries removed because they expired.
+	 * @return the expired count.
+	 */
+	public long getExpired() {
+		return expired;
+	}
+
+	/**
+	 * Returns the number of entries waiting to expire.
+	 * @return the number of entries with a time to live.
+	 */
+	public int getPending() {
+		return wheel.size();
+	}
+
+	/**
+	 * Insert a key-value pair which never expires.
+	 */
+	public void insert(K key, E element) {
+		insert(key, element, Long.MAX_VALUE);
+	}
+
+	/**
+	 * Insert a key-value pair which expires after the given time.
+	 * Duplicate keys are ignored, unless the entry already there has
+	 * expired, in which case it is replaced.
+	 *
+	 * @param key the key value of the entry to be inserted
+	 * @param element the element value of the entry to be inserted
+	 * @param ttlMillis how long the entry lives, in milliseconds.
+	 */
+	public void insert(K key, E element, long ttlMillis) {
+		expire();
+		long now = now();
+		TimedEntry<E, K> existing = dict.search(key);
+		if(existing != null) {
+			if(!existing.isExpired(now)) {
+				return; //cannot have duplicates
+			}
+			wheel.cancel(existing);
+			dict.delete(key);
+		}
+		long deadline = (ttlMillis >= Long.MAX_VALUE - now) ? Long.MAX_VALUE : now + ttlMillis;
+		TimedEntry<E, K> entry = new TimedEntry<E, K>(key, element, deadline);
+		dict.insert(key, entry);
+		wheel.schedule(entry);
+	}
+
+	/**
+	 * Returns the current time in milliseconds.
+	 * @return the time used for all deadlines.
+	 */
+	protected long now() {
+		return System.currentTimeMillis();
+	}
+
+	/**
+	 * Print the entries which have not expired in sorted order.
+	 */
+	public void printTree() {
+		System.out.println("\nPrinting the Expiring Dictionary below...");
+		ExportSink.print(this);
+	}
+
+	/**
+	 * Returns the element with the given key,
+	 * or null if not found or expired.
+	 */
+	public E search(K key) {
+		expire();
+		TimedEntry<E, K> entry = dict.search(key);
+		if((entry == null) || entry.isExpired(now())) {
+			return null;
+		}
+		return entry.getElement();
+	}
+
+	/**
+	 * Hands every entry which has not expired to the visitor in sorted order.
+	 * @param visitor the visitor to give the entries to.
+	 */
+	public void traverse(final DictionaryVisitor<E, K> visitor) throws IOException {
+		expire();
+		final long now = now();
+		dict.traverse(new DictionaryVisitor<TimedEntry<E, K>, K>() {
+			public void visit(K key, TimedEntry<E, K> entry) throws IOException {
+				if(!entry.isExpired(now)) {
+					visitor.visit(key, entry.getElement());
+				}
+			}
+		});
+	}
+}
@@ -0,0 +1,196 @@
+import java.io.Flushable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.WritableByteChannel;
+
+// The "ExportSink" class.
+// A DictionaryVisitor which encodes every entry it is given into a
+// buffer, and writes the buffer out to an Appendable (as characters) or
+// to an OutputStream or WritableByteChannel (as UTF-8) once it is full.
+// Binary encoders need bytes, so they cannot be used with an Appendable.
+// Nothing is allocated per entry, so exporting a large dictionary costs
+// about as much as writing its bytes. Call flush when done.
+public class ExportSink<E, K extends Sortable> implements DictionaryVisitor<E, K> {
+	public static final int BUFFER_SIZE = 1 << 16;
+
+	protected final EntryEncoder encoder;
+
+	protected Appendable text; // set when writing characters,
+
+	protected StringBuilder chars;
+
+	protected WritableByteChannel channel; // or when writing bytes.
+
+	protected ByteBuffer bytes;
+
+	protected Flushable target; // what flush flushes, if it can be flushed.
+
+	protected char high = 0; // a high surrogate waiting for its low half.
+
+	protected long entries = 0; // the number of entries written.
+
+	public ExportSink(Appendable out, EntryEncoder encoder) {
+		if (encoder.isBinary())
+			throw new IllegalArgumentException(
+					"Binary output needs an OutputStream or a channel.");
+		this.encoder = encoder;
+		this.text = out;
+		this.chars = new StringBuilder(BUFFER_SIZE);
+		if (out instanceof Flushable)
+			this.target = (Flushable) out;
+	} // ExportSink constructor
+
+	public ExportSink(WritableByteChannel out, EntryEncoder encoder) {
+		this.encoder = encoder;
+		this.channel = out;
+		this.bytes = ByteBuffer.allocate(BUFFER_SIZE);
+		if (out instanceof Flushable)
+			this.target = (Flushable) out;
+	} // ExportSink constructor
+
+	public ExportSink(OutputStream out, EntryEncoder encoder) {
+		this(Channels.newChannel(out), encoder);
+		this.target = out; // the channel itself has nothing to flush
+	} // ExportSink constructor
+
+	// Prints every entry of DICT to System.out in the printTree format
+	public static <E, K extends Sortable> void print(Dictionary<E, K> dict) {
+		ExportSink<E, K> sink = new ExportSink<E, K>((Appendable) System.out,
+				EntryEncoder.TEXT);
+		try {
+			dict.traverse(sink);
+			sink.flush();
+		} catch (IOException e) {
+			// PrintStream never throws, it only sets its error flag
+			throw new IllegalStateException(e);
+		}
+	} // print method
+
+	public void visit(K key, E element) throws IOException {
+		encoder.encode(key, element, this);
+		entries++;
+		if (chars != null && chars.length() >= BUFFER_SIZE)
+			drain();
+	} // visit method
+
+	public void append(char c) throws IOException {
+		if (chars != null) {
+			chars.append(c);
+			return;
+		}
+		// a surrogate pair is one character, so hold the first half
+		if (high != 0) {
+			char first = high;
+			high = 0;
+			if (Character.isLowSurrogate(c)) {
+				put(Character.toCodePoint(first, c));
+				return;
+			}
+			put(first);
+		}
+		if (Character.isHighSurrogate(c))
+			high = c;
+		else
+			put(c);
+	} // append method
+
+	public void append(CharSequence s) throws IOException {
+		if (chars != null) {
+			chars.append(s);
+			return;
+		}
+		for (int i = 0; i < s.length(); i++)
+			append(s.charAt(i));
+	} // append method
+
+	public void writeInt(int value) throws IOException {
+		if (chars != null)
+			throw new UnsupportedOperationException(
+					"Binary output needs an OutputStream or a channel.");
+		room(4);
+		bytes.putInt(value);
+	} // writeInt method
+
+	// Writes the length of S in UTF-8 bytes, then S itself
+	public void writeUTF(CharSequence s) throws IOException {
+		int length = 0;
+		for (int i = 0; i < s.length(); i += Character.charCount(Character
+				.codePointAt(s, i)))
+			length += length(Character.codePointAt(s, i));
+		writeInt(length);
+		append(s);
+		endPair();
+	} // writeUTF method
+
+	// Returns the number of UTF-8 bytes put writes for CODE
+	protected static int length(int code) {
+		if (code >= Character.MIN_SURROGATE && code <= Character.MAX_SURROGATE)
+			return 1; // a lone surrogate is written as '?'
+		return (code < 0x80) ? 1 : (code < 0x800) ? 2 : (code < 0x10000) ? 3 : 4;
+	} // length method
+
+	// Writes one character as UTF-8. Surrogates which are not part of a
+	// pair cannot be encoded, so they are written as '?', as String does
+	protected void put(int code) throws IOException {
+		room(4);
+		if (code >= Character.MIN_SURROGATE && code <= Character.MAX_SURROGATE) {
+			bytes.put((byte) '?');
+		} else if (code < 0x80) {
+			bytes.put((byte) code);
+		} else if (code < 0x800) {
+			bytes.put((byte) (0xC0 | (code >> 6)));
+			bytes.put((byte) (0x80 | (code & 0x3F)));
+		} else if (code < 0x10000) {
+			bytes.put((byte) (0xE0 | (code >> 12)));
+			bytes.put((byte) (0x80 | ((code >> 6) & 0x3F)));
+			bytes.put((byte) (0x80 | (code & 0x3F)));
+		} else {
+			bytes.put((byte) (0xF0 | (code >> 18)));
+			bytes.put((byte) (0x80 | ((code >> 12) & 0x3F)));
+			bytes.put((byte) (0x80 | ((code >> 6) & 0x3F)));
+			bytes.put((byte) (0x80 | (code & 0x3F)));
+		}
+	} // put method
+
+	// Writes a high surrogate left without its low half
+	protected void endPair() throws IOException {
+		if (high != 0) {
+			put(high);
+			high = 0;
+		}
+	} // endPair method
+
+	public long getEntries() {
+		return entries;
+	} // getEntries method
+
+	// Writes out whatever is buffered, and flushes the target if it can be
+	// flushed (an OutputStream always can), so a buffered stream or a
+	// socket gets the data too
+	public void flush() throws IOException {
+		if (chars == null)
+			endPair();
+		drain();
+		if (target != null)
+			target.flush();
+	} // flush method
+
+	protected void room(int needed) throws IOException {
+		if (bytes.remaining() < needed)
+			drain();
+	} // room method
+
+	protected void drain() throws IOException {
+		if (chars != null) {
+			text.append(chars);
+			chars.setLength(0);
+		} else {
+			bytes.flip();
+			while (bytes.hasRemaining())
+				channel.write(bytes);
+			bytes.clear();
+		}
+	} // drain method
+} /* ExportSink class */
@@ -0,0 +1,89 @@
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+
+// The "ExportSinkTest" class.
+// This class exports entries whose keys and elements hold characters
+// outside the Basic Multilingual Plane (written in Java as surrogate
+// pairs) as binary and as text, and checks that the bytes are the
+// UTF-8 that String.getBytes gives, that the binary lengths match,
+// and that everything reads back unchanged. It also checks that a
+// binary encoder is refused for character output, and that flush gets
+// the data through a buffered stream.
+public class ExportSinkTest {
+	protected static final String[][] ENTRIES = {
+			{ "plain", "ascii only" },
+			{ "caf\u00E9", "\u00FCber \u20AC" },
+			{ "smile \uD83D\uDE00", "clef \uD834\uDD1E and \uD83D\uDE00\uD83D\uDE00" },
+			{ "\uD800\uDC00", "\uDBFF\uDFFF" } };
+
+	public static void main(String[] args) throws Exception {
+		int wrong = 0;
+		ExportSink<String, SortableString> sink;
+
+		// binary: a length, then that many bytes, for each key and element
+		ByteArrayOutputStream binary = new ByteArrayOutputStream();
+		sink = new ExportSink<String, SortableString>(binary, EntryEncoder.BINARY);
+		for (String[] entry : ENTRIES)
+			sink.visit(new SortableString(entry[0]), entry[1]);
+		sink.flush();
+		DataInputStream in = new DataInputStream(new ByteArrayInputStream(
+				binary.toByteArray()));
+		for (String[] entry : ENTRIES)
+			for (String field : entry) {
+				byte[] read = new byte[in.readInt()];
+				in.readFully(read);
+				if (!new String(read, "UTF-8").equals(field)
+						|| read.length != field.getBytes("UTF-8").length) {
+					System.out.println("Binary field did not round-trip: " + field);
+					wrong++;
+				}
+			}
+		if (in.available() != 0) {
+			System.out.println(in.available() + " bytes left over");
+			wrong++;
+		}
+
+		// text: the same bytes String would give
+		ByteArrayOutputStream text = new ByteArrayOutputStream();
+		StringBuilder expected = new StringBuilder();
+		sink = new ExportSink<String, SortableString>(text, EntryEncoder.TEXT);
+		for (String[] entry : ENTRIES) {
+			sink.visit(new SortableString(entry[0]), entry[1]);
+			expected.append("key: " + entry[0] + " element: " + entry[1] + "\n");
+		}
+		sink.flush();
+		if (!new String(text.toByteArray(), "UTF-8").equals(expected.toString())) {
+			System.out.println("Text export is not the expected UTF-8");
+			wrong++;
+		}
+
+		// flush must reach past a stream's own buffer
+		ByteArrayOutputStream behind = new ByteArrayOutputStream();
+		sink = new ExportSink<String, SortableString>(new BufferedOutputStream(
+				behind), EntryEncoder.BINARY);
+		sink.visit(new SortableString("buffered"), "entry");
+		sink.flush();
+		if (behind.size() != binaryLength("buffered") + binaryLength("entry")) {
+			System.out.println("Only " + behind.size()
+					+ " bytes got through a BufferedOutputStream on flush");
+			wrong++;
+		}
+
+		// a binary encoder cannot write to characters
+		try {
+			new ExportSink<String, SortableString>(new StringBuilder(),
+					EntryEncoder.BINARY);
+			System.out.println("Binary encoder accepted for an Appendable");
+			wrong++;
+		} catch (IllegalArgumentException e) {
+		}
+		System.out.println(wrong + " wrong");
+	} // main method
+
+	// The bytes the binary encoder writes for a field: its length, then it
+	static int binaryLength(String field) throws Exception {
+		return 4 + field.getBytes("UTF-8").length;
+	} // binaryLength method
+} /* ExportSinkTest class */
@@ -0,0 +1,313 @@
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * This class keeps a read-only copy of a PublishingDictionary in another
+ * dictionary. A background thread loads a snapshot, then polls the
+ * ChangeSource for the changes made since and applies them in batches,
+ * holding a write lock for each batch so readers never see half of one.
+ * If it falls so far behind that the changes it needs are gone, it loads
+ * a new snapshot.
+ *
+ * It keeps track of how far behind the leader it is (lag) and how many
+ * changes it applies per second (throughput).
+ *
+ * @author Ryan Seys
+ */
+public class Follower<E, K extends Sortable> implements Dictionary<E, K> {
+	// how long one poll waits for new changes.
+	protected static final long POLL_MILLIS = 100;
+
+	protected final Dictionary<E, K> dict;
+
+	protected final ChangeSource<E, K> source;
+
+	protected final int maxBatch; // the most changes applied in one batch.
+
+	protected final Random random = new Random(); // orders snapshot loads.
+
+	protected final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+	protected final Thread applier;
+
+	protected volatile boolean running = true;
+
+	protected volatile long appliedSeq = 0; // the last change applied.
+
+	protected volatile long headSeq = 0; // the leader's latest change, when last polled.
+
+	protected volatile long applied = 0; // the number of changes applied.
+
+	protected volatile long snapshots = 0; // the number of snapshots loaded.
+
+	protected volatile Throwable failure; // what stopped the applier, if anything.
+
+	protected final long started = System.nanoTime();
+
+	/**
+	 * Constructor which starts following the source.
+	 *
+	 * @param dict the (empty) dictionary to keep the copy in.
+	 * @param source where the snapshot and the changes come from.
+	 * @param maxBatch the most changes applied under one lock.
+	 */
+	public Follower(Dictionary<E, K> dict, ChangeSource<E, K> source, int maxBatch) {
+		this.dict = dict;
+		this.source = source;
+		this.maxBatch = maxBatch;
+		this.applier = new Thread("Follower applier") {
+			public void run() {
+				follow();
+			}
+		};
+		applier.setDaemon(true);
+		applier.start();
+	}
+
+	/**
+	 * Records the position reached and wakes up anyone waiting for it.
+	 * @param seq the last change applied.
+	 */
+	synchronized void advance(long seq) {
+		appliedSeq = seq;
+		notifyAll();
+	}
+
+	/**
+	 * Waits until the given change has been applied, or the follower
+	 * has stopped because of a failure.
+	 *
+	 * @param seq the sequence number to wait for.
+	 * @param timeoutMillis the longest time to wait.
+	 * @return true if it was applied in time.
+	 */
+	public synchronized boolean awaitSeq(long seq, long timeoutMillis) throws InterruptedException {
+		long deadline = System.currentTimeMillis() + timeoutMillis;
+		long left = timeoutMillis;
+		while((appliedSeq < seq) && (left > 0) && (failure == null)) {
+			wait(left);
+			left = deadline - System.currentTimeMillis();
+		}
+		return appliedSeq >= seq;
+	}
+
+	/**
+	 * Followers are read-only.
+	 */
+	public void delete(K key) {
+		throw new UnsupportedOperationException("a follower cannot be changed directly");
+	}
+
+	/**
+	 * Returns the depth of the copy's tree.
+	 * @return the depth of the tree in integer form.
+	 */
+	public int depth() {
+		lock.readLock().lock();
+		try {
+			return dict.depth();
+		}
+		finally {
+			lock.readLock().unlock();
+		}
+	}
+
+	/**
+	 * The applier thread's loop: loads a snapshot, then applies batches
+	 * of changes until stopped.
+	 */
+	void follow() {
+		List<ChangeEvent<E, K>> events = new ArrayList<ChangeEvent<E, K>>(maxBatch);
+		try {
+			load();
+			while(running) {
+				try {
+					headSeq = source.poll(appliedSeq, maxBatch, POLL_MILLIS, events);
+				}
+				catch(IllegalArgumentException e) {
+					load(); //too far behind.
+					continue;
+				}
+				if(!events.isEmpty()) {
+					lock.writeLock().lock();
+					try {
+						for(ChangeEvent<E, K> event : events) {
+							event.applyTo(dict);
+						}
+					}
+					finally {
+						lock.writeLock().unlock();
+					}
+					applied += events.size();
+					advance(events.get(events.size() - 1).getSeq());
+					events.clear();
+				}
+			}
+		}
+		catch(InterruptedException e) {
+			//stopped.
+		}
+		catch(Throwable t) {
+			//a lost connection, or a change which could not be applied:
+			//either way the copy is no longer kept up to date.
+			failure = t;
+			advance(appliedSeq); //wake up anyone waiting.
+		}
+	}
+
+	/**
+	 * Returns the number of changes applied (not counting snapshots).
+	 * @return the applied count.
+	 */
+	public long getApplied() {
+		return applied;
+	}
+
+	/**
+	 * Returns the sequence number of the last change applied.
+	 * @return the follower's position in the change stream.
+	 */
+	public long getAppliedSeq() {
+		return appliedSeq;
+	}
+
+	/**
+	 * Returns the error which stopped the follower, if any.
+	 * @return the failure, or null.
+	 */
+	public Throwable getFailure() {
+		return failure;
+	}
+
+	/**
+	 * Returns how many changes the follower is behind the leader, as of
+	 * its last poll.
+	 * @return the lag in changes.
+	 */
+	public long getLag() {
+		return Math.max(0, headSeq - appliedSeq);
+	}
+
+	/**
+	 * Returns the number of snapshots loaded.
+	 * @return the snapshot count.
+	 */
+	public long getSnapshots() {
+		return snapshots;
+	}
+
+	/**
+	 * Returns the average number of changes applied per second since
+	 * the follower started.
+	 * @return the throughput in changes per second.
+	 */
+	public double getThroughput() {
+		double seconds = (System.nanoTime() - started) / 1e9;
+		return applied / seconds;
+	}
+
+	/**
+	 * Followers are read-only.
+	 */
+	public void insert(K key, E element) {
+		throw new UnsupportedOperationException("a follower cannot be changed directly");
+	}
+
+	/**
+	 * Replaces the copy with a snapshot. The snapshot is read before the
+	 * write lock is taken, so readers only wait while it is applied.
+	 */
+	void load() throws IOException {
+		final List<K> keys = new ArrayList<K>();
+		final List<E> elements = new ArrayList<E>();
+		long seq = source.snapshot(new DictionaryVisitor<E, K>() {
+			public void visit(K key, E element) {
+				keys.add(key);
+				elements.add(element);
+			}
+		});
+		lock.writeLock().lock();
+		try {
+			//empty the copy first, if this is not the first snapshot.
+			final List<K> old = new ArrayList<K>();
+			dict.traverse(new DictionaryVisitor<E, K>() {
+				public void visit(K key, E element) {
+					old.add(key);
+				}
+			});
+			//a snapshot arrives in sorted order, which the trees balance
+			//worst (or not at all), so work through it in a random order.
+			Collections.shuffle(old, random);
+			for(K key : old) {
+				dict.delete(key);
+			}
+			int[] order = new int[keys.size()];
+			for(int i = 0; i < order.length; i++) {
+				int j = random.nextInt(i + 1);
+				order[i] = order[j];
+				order[j] = i;
+			}
+			for(int i : order) {
+				dict.insert(keys.get(i), elements.get(i));
+			}
+		}
+		finally {
+			lock.writeLock().unlock();
+		}
+		snapshots++;
+		advance(seq);
+	}
+
+	/**
+	 * Print the copy in sorted order (as determined by the keys).
+	 */
+	public void printTree() {
+		lock.readLock().lock();
+		try {
+			dict.printTree();
+		}
+		finally {
+			lock.readLock().unlock();
+		}
+	}
+
+	/**
+	 * Returns the element with the given key, or null if not found.
+	 */
+	public E search(K key) {
+		lock.readLock().lock();
+		try {
+			return dict.search(key);
+		}
+		finally {
+			lock.readLock().unlock();
+		}
+	}
+
+	/**
+	 * Stops following and waits for the applier thread to finish.
+	 */
+	public void stop() throws InterruptedException {
+		running = false;
+		applier.interrupt();
+		applier.join();
+	}
+
+	/**
+	 * Hands every entry to the visitor in sorted order.
+	 * @param visitor the visitor to give the entries to.
+	 */
+	public void traverse(DictionaryVisitor<E, K> visitor) throws IOException {
+		lock.readLock().lock();
+		try {
+			dict.traverse(visitor);
+		}
+		finally {
+			lock.readLock().unlock();
+		}
+	}
+}
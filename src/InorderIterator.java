@@ -0,0 +1,38 @@
+import java.util.ArrayDeque;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+// The "InorderIterator" class.
+// Walks the nodes below a BSTNode in sorted order (as determined by
+// the keys) without recursion, keeping only the path to the next
+// node on a stack.
+public class InorderIterator<E, K extends Sortable> implements Iterator<BSTNode<E, K>> {
+	protected ArrayDeque<BSTNode<E, K>> stack = new ArrayDeque<BSTNode<E, K>>();
+
+	public InorderIterator(BSTNode<E, K> root) {
+		pushLeft(root);
+	} // InorderIterator constructor
+
+	protected void pushLeft(BSTNode<E, K> node) {
+		while (node != null) {
+			stack.push(node);
+			node = node.getLeft();
+		}
+	} // pushLeft method
+
+	public boolean hasNext() {
+		return !stack.isEmpty();
+	} // hasNext method
+
+	public BSTNode<E, K> next() {
+		if (stack.isEmpty())
+			throw new NoSuchElementException();
+		BSTNode<E, K> node = stack.pop();
+		pushLeft(node.getRight());
+		return node;
+	} // next method
+
+	public void remove() {
+		throw new UnsupportedOperationException();
+	} // remove method
+} /* InorderIterator class */
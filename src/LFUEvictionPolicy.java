@@ -0,0 +1,94 @@
+// The "LFUEvictionPolicy" class.
+// Keeps a list of buckets in increasing order of use count, each with
+// the list of entries which were used that many times, oldest first.
+// A search moves the entry to the next bucket, and the victim is the
+// oldest entry in the first bucket, so every operation is O(1).
+public class LFUEvictionPolicy<E, K extends Sortable> extends EvictionPolicy<E, K> {
+	protected Bucket<E, K> first; // the bucket with the lowest count.
+
+	// Entries which were used COUNT times
+	static class Bucket<E, K extends Sortable> {
+		long count;
+
+		Bucket<E, K> previous, next;
+
+		BoundedEntry<E, K> head, tail;
+
+		Bucket(long count) {
+			this.count = count;
+		}
+	} // Bucket class
+
+	// Makes a bucket with COUNT right after AFTER (or first if null)
+	protected Bucket<E, K> addBucket(long count, Bucket<E, K> after) {
+		Bucket<E, K> bucket = new Bucket<E, K>(count);
+		bucket.previous = after;
+		bucket.next = (after == null) ? first : after.next;
+		if (bucket.next != null)
+			bucket.next.previous = bucket;
+		if (after == null)
+			first = bucket;
+		else
+			after.next = bucket;
+		return bucket;
+	} // addBucket method
+
+	// Adds ENTRY to the back of BUCKET
+	protected void append(Bucket<E, K> bucket, BoundedEntry<E, K> entry) {
+		entry.bucket = bucket;
+		entry.previous = bucket.tail;
+		entry.next = null;
+		if (bucket.tail != null)
+			bucket.tail.next = entry;
+		else
+			bucket.head = entry;
+		bucket.tail = entry;
+	} // append method
+
+	// Takes ENTRY out of its bucket, dropping the bucket if it is empty
+	protected void unlink(BoundedEntry<E, K> entry) {
+		Bucket<E, K> bucket = entry.bucket;
+		if (entry.previous != null)
+			entry.previous.next = entry.next;
+		else
+			bucket.head = entry.next;
+		if (entry.next != null)
+			entry.next.previous = entry.previous;
+		else
+			bucket.tail = entry.previous;
+		entry.previous = entry.next = null;
+		entry.bucket = null;
+		if (bucket.head == null) {
+			if (bucket.previous != null)
+				bucket.previous.next = bucket.next;
+			else
+				first = bucket.next;
+			if (bucket.next != null)
+				bucket.next.previous = bucket.previous;
+		}
+	} // unlink method
+
+	public void inserted(BoundedEntry<E, K> entry) {
+		Bucket<E, K> bucket = first;
+		if (bucket == null || bucket.count != 1)
+			bucket = addBucket(1, null);
+		append(bucket, entry);
+	} // inserted method
+
+	public void accessed(BoundedEntry<E, K> entry) {
+		Bucket<E, K> bucket = entry.bucket;
+		Bucket<E, K> target = bucket.next;
+		if (target == null || target.count != bucket.count + 1)
+			target = addBucket(bucket.count + 1, bucket);
+		unlink(entry); // may drop BUCKET, but TARGET stays linked
+		append(target, entry);
+	} // accessed method
+
+	public void removed(BoundedEntry<E, K> entry) {
+		unlink(entry);
+	} // removed method
+
+	public BoundedEntry<E, K> victim() {
+		return (first == null) ? null : first.head;
+	} // victim method
+} /* LFUEvictionPolicy class */
@@ -0,0 +1,92 @@
+// The "LatencyHistogram" class.
+// Counts latencies (in nanoseconds) in buckets which are 1/8 of a power
+// of two wide, so any latency is known to within 12.5% using a fixed,
+// small array. Percentiles are given as the low end of their bucket.
+public class LatencyHistogram {
+	protected static final int SUB_BITS = 3;
+
+	protected static final int SUB = 1 << SUB_BITS;
+
+	protected final long[] counts = new long[(64 - SUB_BITS) * SUB];
+
+	protected long count = 0;
+
+	protected long max = 0;
+
+	protected static int bucket(long nanos) {
+		if (nanos < SUB)
+			return (int) Math.max(nanos, 0);
+		int exponent = 63 - Long.numberOfLeadingZeros(nanos);
+		return (exponent - SUB_BITS + 1) * SUB
+				+ (int) ((nanos >>> (exponent - SUB_BITS)) & (SUB - 1));
+	} // bucket method
+
+	protected static long lowest(int bucket) {
+		if (bucket < SUB)
+			return bucket;
+		int exponent = bucket / SUB + SUB_BITS - 1;
+		return (long) (SUB + bucket % SUB) << (exponent - SUB_BITS);
+	} // lowest method
+
+	public void record(long nanos) {
+		counts[bucket(nanos)]++;
+		count++;
+		max = Math.max(max, nanos);
+	} // record method
+
+	// Adds the counts of another histogram, such as another thread's
+	public void add(LatencyHistogram other) {
+		for (int i = 0; i < counts.length; i++)
+			counts[i] += other.counts[i];
+		count += other.count;
+		max = Math.max(max, other.max);
+	} // add method
+
+	public long getCount() {
+		return count;
+	} // getCount method
+
+	public long getMax() {
+		return max;
+	} // getMax method
+
+	// The latency which the given share (such as 0.99) of counts are at or above
+	public long percentile(double share) {
+		long wanted = (long) Math.ceil(share * count);
+		long seen = 0;
+		for (int i = 0; i < counts.length; i++) {
+			seen += counts[i];
+			if (seen >= wanted && seen > 0)
+				return lowest(i);
+		}
+		return 0;
+	} // percentile method
+
+	// Prints the percentiles, then a bar for each power of two of latency
+	public void print(String name) {
+		System.out.println(name + ": " + count + " ops, p50 "
+				+ micros(percentile(0.5)) + ", p90 " + micros(percentile(0.9))
+				+ ", p99 " + micros(percentile(0.99)) + ", p99.9 "
+				+ micros(percentile(0.999)) + ", max " + micros(max));
+		long[] rows = new long[64];
+		long most = 1;
+		for (int i = 0; i < counts.length; i++) {
+			int row = 63 - Long.numberOfLeadingZeros(Math.max(lowest(i), 1));
+			rows[row] += counts[i];
+			most = Math.max(most, rows[row]);
+		}
+		for (int row = 0; row < rows.length; row++) {
+			if (rows[row] == 0)
+				continue;
+			StringBuilder bar = new StringBuilder();
+			for (int i = 0; i < 40 * rows[row] / most; i++)
+				bar.append('#');
+			System.out.println("  " + micros(1L << row) + " - "
+					+ micros(2L << row) + "\t" + rows[row] + "\t" + bar);
+		}
+	} // print method
+
+	protected static String micros(long nanos) {
+		return (nanos / 1000.0) + " us";
+	} // micros method
+} /* LatencyHistogram class */
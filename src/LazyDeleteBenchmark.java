@@ -0,0 +1,80 @@
+import java.util.Arrays;
+import java.util.Random;
+
+// The "LazyDeleteBenchmark" class.
+// This class compares the latency of eager deletes (AVLDictionary) with
+// lazy deletes (LazyDeleteDictionary, compacting in the background).
+// Each dictionary is loaded with random keys and then given the same
+// mix of searches and inserts with bursts of deletes. It prints the
+// median, 99th and 99.9th percentile and worst latency of the deletes
+// and of all operations.
+// Arguments: operations (default 500000), ratio of tombstones which
+// starts compaction (default 0.25).
+public class LazyDeleteBenchmark {
+	protected static final int KEYS = 100000;
+
+	protected static final int BURST = 2000; // deletes in a row.
+
+	public static void main(String[] args) throws Exception {
+		int ops = (args.length > 0) ? Integer.parseInt(args[0]) : 500000;
+		double ratio = (args.length > 1) ? Double.parseDouble(args[1]) : 0.25;
+		// once each to warm up, then the runs which are reported
+		run(new AVLDictionary<String, SortableString>(), ops, false);
+		LazyDeleteDictionary<String, SortableString> lazy = new LazyDeleteDictionary<String, SortableString>(ratio);
+		run(lazy, ops, false);
+		lazy.shutdown();
+		run(new AVLDictionary<String, SortableString>(), ops, true);
+		lazy = new LazyDeleteDictionary<String, SortableString>(ratio);
+		run(lazy, ops, true);
+		System.out.println("Lazy: " + lazy.getCompacted()
+				+ " tombstones compacted, " + lazy.getTombstones() + " left");
+		lazy.shutdown();
+	} // main method
+
+	static void run(Dictionary<String, SortableString> dict, int ops,
+			boolean report) {
+		Random random = new Random(11);
+		for (int i = 0; i < KEYS; i++) {
+			String s = Integer.toString(random.nextInt(KEYS * 2));
+			dict.insert(new SortableString(s), s);
+		}
+		long[] all = new long[ops];
+		long[] deletes = new long[ops];
+		int deleted = 0;
+		int burst = 0;
+		for (int i = 0; i < ops; i++) {
+			SortableString key = new SortableString(Integer.toString(random
+					.nextInt(KEYS * 2)));
+			if (burst == 0 && random.nextInt(5000) == 0)
+				burst = BURST;
+			boolean delete = burst > 0;
+			long start = System.nanoTime();
+			if (delete) {
+				dict.delete(key);
+				burst--;
+			} else if (random.nextBoolean())
+				dict.search(key);
+			else
+				dict.insert(key, key.toString());
+			long time = System.nanoTime() - start;
+			all[i] = time;
+			if (delete)
+				deletes[deleted++] = time;
+		}
+		if (report) {
+			String name = (dict instanceof LazyDeleteDictionary) ? "lazy"
+					: "eager";
+			print(name + " deletes", Arrays.copyOf(deletes, deleted));
+			print(name + " all ops", all);
+		}
+	} // run method
+
+	static void print(String name, long[] latencies) {
+		Arrays.sort(latencies);
+		int n = latencies.length;
+		System.out.println(name + " (" + n + "): p50 " + latencies[n / 2]
+				/ 1000.0 + " us, p99 " + latencies[(int) (n * 0.99)] / 1000.0
+				+ " us, p99.9 " + latencies[(int) (n * 0.999)] / 1000.0
+				+ " us, max " + latencies[n - 1] / 1000.0 + " us");
+	} // print method
+} /* LazyDeleteBenchmark class */
@@ -0,0 +1,294 @@
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * An AVL Tree whose deletes only mark the node as deleted (a tombstone),
+ * which takes one search and no rebalancing or copying. Tombstones are
+ * left out of searches and traversals, and inserting the key again
+ * brings the node back.
+ *
+ * When tombstones make up more than a given share of the nodes, a
+ * background thread compacts the tree by really deleting them, a small
+ * batch at a time, so that no operation waits behind more than one batch.
+ * The thread is started by the delete which makes compaction due, and
+ * ends once every tombstone is gone, so a dictionary which is not being
+ * compacted holds no thread and can simply be dropped. It is a daemon
+ * thread, so it never keeps the program running either.
+ *
+ * Every method takes the tree's lock, so it may be used from several
+ * threads. shutdown stops compaction for good.
+ *
+ * @author Ryan Seys
+ */
+public class LazyDeleteDictionary<E, K extends Sortable> extends AVLDictionary<E, K> {
+    // how many tombstones the compactor removes each time it has the lock.
+    protected static final int BATCH = 8;
+
+    protected final double maxTombstoneRatio;
+
+    // fair, so that a busy caller cannot keep the compactor out.
+    protected final ReentrantLock lock = new ReentrantLock(true);
+
+    protected final ArrayDeque<K> tombstoneKeys = new ArrayDeque<K>(); // in delete order.
+
+    protected Thread compactor; // null unless compacting.
+
+    protected volatile boolean running = true;
+
+    protected int live = 0; // the number of entries which are not tombstones.
+
+    protected int tombstones = 0; // the number of tombstones in the tree.
+
+    protected long compacted = 0; // the number of tombstones removed.
+
+    /**
+     * Constructor for the lazily deleting AVL Tree. No thread is started
+     * until compaction is due.
+     *
+     * @param maxTombstoneRatio the share of the nodes (such as 0.25) which
+     *        may be tombstones before the tree is compacted.
+     */
+    public LazyDeleteDictionary(double maxTombstoneRatio) {
+        super();
+        this.maxTombstoneRatio = maxTombstoneRatio;
+    }
+
+    /**
+     * Really deletes up to one batch of tombstones.
+     * @return true if there are more tombstones waiting.
+     */
+    public boolean compact() {
+        lock.lock();
+        try {
+            for(int i = 0; (i < BATCH) && !tombstoneKeys.isEmpty(); i++) {
+                K key = tombstoneKeys.poll();
+                TombstoneNode<E, K> node = (TombstoneNode<E, K>) searchNode(key);
+                //the key may have been inserted again since.
+                if((node != null) && node.isDeleted()) {
+                    super.delete(key);
+                    tombstones--;
+                    compacted++;
+                }
+            }
+            return !tombstoneKeys.isEmpty();
+        }
+        finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * The compactor thread's loop: removes every tombstone, one batch at
+     * a time, and ends once there are none left (or on shutdown).
+     */
+    void compactLoop() {
+        while(true) {
+            while(running && compact()) {
+                Thread.yield(); //let waiting operations have the lock.
+            }
+            lock.lock();
+            try {
+                //decided under the lock, so a delete either sees this
+                //thread still running or starts a new one.
+                if(!running || tombstoneKeys.isEmpty()) {
+                    compactor = null;
+                    return;
+                }
+            }
+            finally {
+                lock.unlock();
+            }
+        }
+    }
+
+    /**
+     * Copies a node, keeping its tombstone mark.
+     */
+    public AVLNode<E, K> copyNode(AVLNode<E, K> node) {
+        TombstoneNode<E, K> copy = (TombstoneNode<E, K>) super.copyNode(node);
+        if(copy != null) {
+            copy.setDeleted(((TombstoneNode<E, K>) node).isDeleted());
+        }
+        return copy;
+    }
+
+    /**
+     * Marks the entry with the given key as deleted, leaving it in place
+     * until the compactor removes it.
+     * @param key The key we wish to delete from this tree.
+     */
+    public void delete(K key) {
+        lock.lock();
+        try {
+            TombstoneNode<E, K> node = (TombstoneNode<E, K>) searchNode(key);
+            if((node == null) || node.isDeleted()) {
+                return; //nothing to delete
+            }
+            node.setDeleted(true);
+            live--;
+            tombstones++;
+            tombstoneKeys.add(key);
+            if(overThreshold() && running && (compactor == null)) {
+                compactor = new Thread("LazyDeleteDictionary compactor") {
+                    public void run() {
+                        compactLoop();
+                    }
+                };
+                compactor.setDaemon(true);
+                compactor.start();
+            }
+        }
+        finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Returns the depth of the tree, tombstones included.
+     * @return the depth of the tree in integer form.
+     */
+    public int depth() {
+        lock.lock();
+        try {
+            return super.depth();
+        }
+        finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Returns the number of tombstones the compactor has removed.
+     * @return the compacted count.
+     */
+    public long getCompacted() {
+        lock.lock();
+        try {
+            return compacted;
+        }
+        finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Returns the number of tombstones still in the tree.
+     * @return the tombstone count.
+     */
+    public int getTombstones() {
+        lock.lock();
+        try {
+            return tombstones;
+        }
+        finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Insert a key-value pair into the tree. If the key is a tombstone,
+     * its node is brought back with the new element.
+     */
+    public void insert(K key, E element) {
+        lock.lock();
+        try {
+            TombstoneNode<E, K> node = (TombstoneNode<E, K>) searchNode(key);
+            if(node == null) {
+                super.insert(key, element);
+                live++;
+            }
+            else if(node.isDeleted()) {
+                node.setElement(element);
+                node.setDeleted(false);
+                tombstones--;
+                live++;
+            }
+        }
+        finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Creates a TombstoneNode, which can be marked as deleted.
+     */
+    protected AVLNode<E, K> newNode(K key, E element, AVLNode<E, K> left, AVLNode<E, K> right, int balance) {
+        return new TombstoneNode<E, K>(key, element, left, right, balance);
+    }
+
+    /**
+     * Whether tombstones make up too much of the tree.
+     * Only called with the lock held.
+     */
+    boolean overThreshold() {
+        return tombstones > maxTombstoneRatio * (live + tombstones);
+    }
+
+    /**
+     * Print the Dictionary in sorted order (as determined by the keys),
+     * leaving out the tombstones.
+     */
+    public void printTree() {
+        System.out.println("\nPrinting the Lazy Delete AVL Tree below...");
+        ExportSink.print(this);
+    }
+
+    /**
+     * Returns the element with the given key,
+     * or null if not found or deleted.
+     */
+    public E search(K key) {
+        lock.lock();
+        try {
+            TombstoneNode<E, K> node = (TombstoneNode<E, K>) searchNode(key);
+            if((node == null) || node.isDeleted()) {
+                return null;
+            }
+            return node.getElement();
+        }
+        finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Stops compacting, waiting for the compactor thread to finish its
+     * batch if it is running. Tombstones left in the tree stay there.
+     */
+    public void shutdown() throws InterruptedException {
+        Thread thread;
+        lock.lock();
+        try {
+            running = false;
+            thread = compactor;
+        }
+        finally {
+            lock.unlock();
+        }
+        if(thread != null) {
+            thread.join();
+        }
+    }
+
+    /**
+     * Hands every entry which is not a tombstone to the visitor in
+     * sorted order (as determined by the keys).
+     * @param visitor the visitor to give the entries to.
+     */
+    public void traverse(DictionaryVisitor<E, K> visitor) throws IOException {
+        lock.lock();
+        try {
+            InorderIterator<E, K> nodes = new InorderIterator<E, K>(root);
+            while(nodes.hasNext()) {
+                TombstoneNode<E, K> node = (TombstoneNode<E, K>) nodes.next();
+                if(!node.isDeleted()) {
+                    visitor.visit(node.getKey(), node.getElement());
+                }
+            }
+        }
+        finally {
+            lock.unlock();
+        }
+    }
+}
@@ -0,0 +1,183 @@
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * An AVL Tree whose nodes also keep a hash of their subtree (see
+ * MerkleNode), kept up to date through every insert, delete and rotation.
+ *
+ * Because a subtree's hash is the sum of its entries' hashes, the hash of
+ * any range of keys can be found in O(log n), whatever the shape of the
+ * tree. This lets diff compare two replicas which were built in different
+ * orders: it only descends into the subtrees whose range hashes differ, so
+ * two large replicas which differ by a few keys are compared in about
+ * (differences * log n) steps instead of a full scan.
+ *
+ * Keys and elements must not be null, and must have a hashCode which
+ * agrees with their equals (and, for keys, with compareTo), as
+ * SortableString and String do.
+ *
+ * @author Ryan Seys
+ */
+public class MerkleDictionary<E, K extends Sortable> extends AVLDictionary<E, K> {
+
+    /**
+     * Constructor for the Merkle Tree.
+     */
+    public MerkleDictionary() {
+        super();
+    }
+
+    /**
+     * Collects the keys of every entry in the given range, in sorted order.
+     *
+     * @param node the subtree to collect from.
+     * @param lo the lower bound (exclusive), or null for no bound.
+     * @param hi the upper bound (exclusive), or null for no bound.
+     * @param keys the list the keys are added to.
+     */
+    void collect(AVLNode<E, K> node, K lo, K hi, List<K> keys) {
+        if(node == null) {
+            return;
+        }
+        boolean aboveLo = (lo == null) || (node.getKey().compareTo(lo) > 0);
+        boolean belowHi = (hi == null) || (node.getKey().compareTo(hi) < 0);
+        if(aboveLo) {
+            collect(node.getLeft(), lo, hi, keys);
+        }
+        if(aboveLo && belowHi) {
+            keys.add(node.getKey());
+        }
+        if(belowHi) {
+            collect(node.getRight(), lo, hi, keys);
+        }
+    }
+
+    /**
+     * Returns the keys whose entries differ between this dictionary and
+     * another: keys which only one of them has, and keys whose elements
+     * are not equal. Subtrees of this dictionary whose hash matches the
+     * hash of the same range of keys in the other are skipped entirely.
+     *
+     * @param other the replica to compare against.
+     * @return the differing keys, in sorted order.
+     */
+    public List<K> diff(MerkleDictionary<E, K> other) {
+        List<K> keys = new ArrayList<K>();
+        diffBelow(root, null, null, other, keys);
+        return keys;
+    }
+
+    /**
+     * A recursive solution to diffing the range of keys under a node.
+     *
+     * @param node the subtree of this dictionary holding the range.
+     * @param lo the lower bound of the range (exclusive), or null.
+     * @param hi the upper bound of the range (exclusive), or null.
+     * @param other the replica to compare against.
+     * @param keys the list the differing keys are added to.
+     */
+    void diffBelow(AVLNode<E, K> node, K lo, K hi, MerkleDictionary<E, K> other, List<K> keys) {
+        if(MerkleNode.hash(node) == other.rangeHash(lo, hi)) {
+            return; //the same entries on both sides.
+        }
+        if(node == null) {
+            //everything the other has in this range is missing here.
+            other.collect(other.root, lo, hi, keys);
+            return;
+        }
+        diffBelow(node.getLeft(), lo, node.getKey(), other, keys);
+        E element = other.search(node.getKey());
+        if((element == null) || !element.equals(node.getElement())) {
+            keys.add(node.getKey());
+        }
+        diffBelow(node.getRight(), node.getKey(), hi, other, keys);
+    }
+
+    /**
+     * Returns the hash of every entry in the dictionary. Two dictionaries
+     * with the same entries have the same root hash.
+     * @return the root hash, 0 if the dictionary is empty.
+     */
+    public long getRootHash() {
+        return MerkleNode.hash(root);
+    }
+
+    /**
+     * Sums the hashes of the entries under a node whose keys are
+     * greater than lo, following a single path down.
+     */
+    long hashAbove(AVLNode<E, K> node, K lo) {
+        long sum = 0;
+        while(node != null) {
+            if((lo == null) || (node.getKey().compareTo(lo) > 0)) {
+                //this entry and everything to its right are in range.
+                sum += MerkleNode.entryHash(node.getKey(), node.getElement()) + MerkleNode.hash(node.getRight());
+                node = node.getLeft();
+            }
+            else {
+                node = node.getRight();
+            }
+        }
+        return sum;
+    }
+
+    /**
+     * Sums the hashes of the entries under a node whose keys are
+     * less than hi, following a single path down.
+     */
+    long hashBelow(AVLNode<E, K> node, K hi) {
+        long sum = 0;
+        while(node != null) {
+            if((hi == null) || (node.getKey().compareTo(hi) < 0)) {
+                //this entry and everything to its left are in range.
+                sum += MerkleNode.entryHash(node.getKey(), node.getElement()) + MerkleNode.hash(node.getLeft());
+                node = node.getRight();
+            }
+            else {
+                node = node.getLeft();
+            }
+        }
+        return sum;
+    }
+
+    /**
+     * Creates a MerkleNode, which works out its hash from its children.
+     */
+    protected AVLNode<E, K> newNode(K key, E element, AVLNode<E, K> left, AVLNode<E, K> right, int balance) {
+        return new MerkleNode<E, K>(key, element, (MerkleNode<E, K>) left, (MerkleNode<E, K>) right, balance);
+    }
+
+    /**
+     * Print the Dictionary in sorted order (as determined by the keys).
+     */
+    public void printTree() {
+        System.out.println("\nPrinting the Merkle Tree below...");
+        ExportSink.print(this);
+    }
+
+    /**
+     * Returns the hash of the entries whose keys are strictly between
+     * lo and hi, in O(log n).
+     *
+     * @param lo the lower bound (exclusive), or null for no bound.
+     * @param hi the upper bound (exclusive), or null for no bound.
+     * @return the sum of the entry hashes in the range.
+     */
+    public long rangeHash(K lo, K hi) {
+        AVLNode<E, K> node = root;
+        //find the first node inside the range; the rest of the range is below it.
+        while(node != null) {
+            if((lo != null) && (node.getKey().compareTo(lo) <= 0)) {
+                node = node.getRight();
+            }
+            else if((hi != null) && (node.getKey().compareTo(hi) >= 0)) {
+                node = node.getLeft();
+            }
+            else {
+                return MerkleNode.entryHash(node.getKey(), node.getElement())
+                        + hashAbove(node.getLeft(), lo) + hashBelow(node.getRight(), hi);
+            }
+        }
+        return 0; //nothing in the range.
+    }
+}
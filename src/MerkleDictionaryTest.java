@@ -0,0 +1,76 @@
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.TreeSet;
+
+// The "MerkleDictionaryTest" class.
+// This class builds two MerkleDictionary replicas of the same random keys,
+// inserted in different orders, then changes a handful of entries in one
+// of them (deleted, added and updated keys). It checks that the root
+// hashes first agree and then differ, and that diff finds exactly the
+// changed keys (in sorted order, either way round), printing how long
+// the diff took.
+// Argument: the number of keys (default 200000).
+public class MerkleDictionaryTest {
+	public static void main(String[] args) {
+		int size = (args.length > 0) ? Integer.parseInt(args[0]) : 200000;
+		Random random = new Random(7);
+		List<String> keys = new ArrayList<String>();
+		for (int i = 0; i < size; i++)
+			keys.add(Long.toString(random.nextLong() & Long.MAX_VALUE, 36));
+
+		MerkleDictionary<String, SortableString> a = new MerkleDictionary<String, SortableString>();
+		MerkleDictionary<String, SortableString> b = new MerkleDictionary<String, SortableString>();
+		for (String s : keys)
+			a.insert(new SortableString(s), s);
+		Collections.shuffle(keys, random);
+		for (String s : keys)
+			b.insert(new SortableString(s), s);
+		int wrong = 0;
+		boolean same = a.getRootHash() == b.getRootHash();
+		List<SortableString> none = a.diff(b);
+		System.out.println("Same entries, same root hash: " + same + ", diff: "
+				+ none);
+		if (!same || !none.isEmpty())
+			wrong++;
+
+		// one key deleted, one added, one updated (delete and re-insert).
+		b.delete(new SortableString(keys.get(0)));
+		b.insert(new SortableString("added"), "added");
+		b.delete(new SortableString(keys.get(1)));
+		b.insert(new SortableString(keys.get(1)), "updated");
+		same = a.getRootHash() == b.getRootHash();
+		System.out.println("After 3 changes, same root hash: " + same);
+		if (same)
+			wrong++;
+
+		long start = System.nanoTime();
+		List<SortableString> changed = a.diff(b);
+		long micros = (System.nanoTime() - start) / 1000;
+		System.out.println("diff of " + size + " keys took " + micros
+				+ " us and found " + changed.size() + " keys:");
+		for (SortableString key : changed)
+			System.out.println("key: " + key);
+
+		// exactly the three changed keys, sorted, from either side
+		TreeSet<String> expected = new TreeSet<String>();
+		expected.add(keys.get(0));
+		expected.add(keys.get(1));
+		expected.add("added");
+		if (!names(changed).equals(new ArrayList<String>(expected))
+				|| !names(b.diff(a)).equals(new ArrayList<String>(expected))) {
+			System.out.println("Expected the changed keys " + expected);
+			wrong++;
+		}
+		System.out.println(wrong + " wrong");
+	} // main method
+
+	// The keys as strings, in the order given
+	static List<String> names(List<SortableString> keys) {
+		List<String> names = new ArrayList<String>();
+		for (SortableString key : keys)
+			names.add(key.toString());
+		return names;
+	} // names method
+} /* MerkleDictionaryTest class */
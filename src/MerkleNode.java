@@ -0,0 +1,66 @@
+// The "MerkleNode" class.
+// An AVLNode which also keeps a hash of every entry in its subtree.
+// The hash of a subtree is the sum of the hashes of its entries, so it
+// does not depend on the shape of the tree: two trees holding the same
+// entries have the same root hash. It is recomputed from the children
+// whenever the node's key, element or children change.
+public class MerkleNode<E, K extends Sortable> extends AVLNode<E, K> {
+	protected long hash;
+
+	public MerkleNode(K key, E element, MerkleNode<E, K> left,
+			MerkleNode<E, K> right, int balance) {
+		super(key, element, left, right, balance);
+		rehash();
+	} // MerkleNode constructor
+
+	// Hashes one entry (SplitMix64 over the key and element hash codes)
+	public static long entryHash(Object key, Object element) {
+		long h = ((long) key.hashCode() << 32)
+				^ (element.hashCode() & 0xffffffffL);
+		h += 0x9e3779b97f4a7c15L;
+		h = (h ^ (h >>> 30)) * 0xbf58476d1ce4e5b9L;
+		h = (h ^ (h >>> 27)) * 0x94d049bb133111ebL;
+		return h ^ (h >>> 31);
+	} // entryHash method
+
+	// The hash of a subtree, 0 if it is empty
+	public static long hash(BSTNode<?, ?> node) {
+		return (node == null) ? 0 : ((MerkleNode<?, ?>) node).hash;
+	} // hash method
+
+	protected void rehash() {
+		hash = entryHash(key, element) + hash(left) + hash(right);
+	} // rehash method
+
+	public MerkleNode<E, K> getLeft() {
+		return (MerkleNode<E, K>) left;
+	} // getLeft method
+
+	public MerkleNode<E, K> getRight() {
+		return (MerkleNode<E, K>) right;
+	} // getRight method
+
+	public long getHash() {
+		return hash;
+	} // getHash method
+
+	public void setKey(K key) {
+		super.setKey(key);
+		rehash();
+	} // setKey method
+
+	public void setElement(E element) {
+		super.setElement(element);
+		rehash();
+	} // setElement method
+
+	public void setLeft(BSTNode<E, K> node) {
+		super.setLeft(node);
+		rehash();
+	} // setLeft method
+
+	public void setRight(BSTNode<E, K> node) {
+		super.setRight(node);
+		rehash();
+	} // setRight method
+} /* MerkleNode class */
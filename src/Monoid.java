@@ -0,0 +1,92 @@
+// The "Monoid" class.
+// Summarizes runs of elements for an AggregateDictionary: each element
+// has a summary, and the summaries of two runs which follow each other
+// combine into the summary of both. combine must be associative, with
+// identity() (the summary of no elements) changing nothing, but need
+// not be commutative, as runs are always combined in key order.
+public abstract class Monoid<E, A> {
+	// Counts the elements
+	public static <E> Monoid<E, Long> count() {
+		return new Monoid<E, Long>() {
+			public Long identity() {
+				return 0L;
+			}
+
+			public Long of(E element) {
+				return 1L;
+			}
+
+			public Long combine(Long left, Long right) {
+				return left + right;
+			}
+		};
+	} // count method
+
+	// Adds up the values of the elements
+	public static <E> Monoid<E, Long> sum(final ValueExtractor<E> values) {
+		return new Monoid<E, Long>() {
+			public Long identity() {
+				return 0L;
+			}
+
+			public Long of(E element) {
+				return values.valueOf(element);
+			}
+
+			public Long combine(Long left, Long right) {
+				return left + right;
+			}
+		};
+	} // sum method
+
+	// The smallest value of the elements, null if there are none
+	public static <E> Monoid<E, Long> min(final ValueExtractor<E> values) {
+		return new Monoid<E, Long>() {
+			public Long identity() {
+				return null;
+			}
+
+			public Long of(E element) {
+				return values.valueOf(element);
+			}
+
+			public Long combine(Long left, Long right) {
+				if (left == null)
+					return right;
+				if (right == null)
+					return left;
+				return Math.min(left, right);
+			}
+		};
+	} // min method
+
+	// The largest value of the elements, null if there are none
+	public static <E> Monoid<E, Long> max(final ValueExtractor<E> values) {
+		return new Monoid<E, Long>() {
+			public Long identity() {
+				return null;
+			}
+
+			public Long of(E element) {
+				return values.valueOf(element);
+			}
+
+			public Long combine(Long left, Long right) {
+				if (left == null)
+					return right;
+				if (right == null)
+					return left;
+				return Math.max(left, right);
+			}
+		};
+	} // max method
+
+	// return the summary of no elements
+	public abstract A identity();
+
+	// return the summary of one element
+	public abstract A of(E element);
+
+	// return the summary of a run followed by another run
+	public abstract A combine(A left, A right);
+} /* Monoid class */
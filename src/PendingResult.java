@@ -0,0 +1,80 @@
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+// The "PendingResult" class.
+// A Future which is completed by whichever thread does the work,
+// either with a value or with the exception that stopped it.
+// It cannot be cancelled.
+public class PendingResult<T> implements Future<T> {
+	protected final CountDownLatch done = new CountDownLatch(1);
+
+	protected T value;
+
+	protected Throwable failure;
+
+	public void complete(T value) {
+		this.value = value;
+		done.countDown();
+	} // complete method
+
+	public void fail(Throwable failure) {
+		this.failure = failure;
+		done.countDown();
+	} // fail method
+
+	public boolean cancel(boolean mayInterruptIfRunning) {
+		return false;
+	} // cancel method
+
+	public boolean isCancelled() {
+		return false;
+	} // isCancelled method
+
+	public boolean isDone() {
+		return done.getCount() == 0;
+	} // isDone method
+
+	public T get() throws InterruptedException, ExecutionException {
+		done.await();
+		return result();
+	} // get method
+
+	public T get(long timeout, TimeUnit unit) throws InterruptedException,
+			ExecutionException, TimeoutException {
+		if (!done.await(timeout, unit))
+			throw new TimeoutException();
+		return result();
+	} // get method
+
+	// Waits for the result without checked exceptions, like the
+	// Dictionary methods. A failure is rethrown unchecked.
+	public T join() {
+		boolean interrupted = false;
+		while (true) {
+			try {
+				done.await();
+				break;
+			} catch (InterruptedException e) {
+				interrupted = true;
+			}
+		}
+		if (interrupted)
+			Thread.currentThread().interrupt();
+		if (failure instanceof RuntimeException)
+			throw (RuntimeException) failure;
+		if (failure instanceof Error)
+			throw (Error) failure;
+		if (failure != null)
+			throw new RuntimeException(failure);
+		return value;
+	} // join method
+
+	protected T result() throws ExecutionException {
+		if (failure != null)
+			throw new ExecutionException(failure);
+		return value;
+	} // result method
+} /* PendingResult class */
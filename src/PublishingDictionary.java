@@ -0,0 +1,137 @@
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * This class publishes every change made to another dictionary (such as a
+ * BSTDictionary or AVLDictionary) as an ordered stream of numbered
+ * ChangeEvents, which Followers apply to their own copies.
+ *
+ * Only inserts and deletes which change something are published, so
+ * applying the stream in order to a snapshot always gives the same
+ * entries. The latest changes are kept in a ChangeLog; a follower which
+ * falls further behind than that starts again from a new snapshot.
+ *
+ * All methods are synchronized, so a snapshot is taken while no change
+ * is being made. Writers only wait while the entries are copied, not
+ * while they are handed to the follower (perhaps over a slow network).
+ *
+ * @author Ryan Seys
+ */
+public class PublishingDictionary<E, K extends Sortable> implements Dictionary<E, K>, ChangeSource<E, K> {
+	protected final Dictionary<E, K> dict;
+
+	protected final ChangeLog<E, K> log;
+
+	/**
+	 * Constructor for the publishing dictionary.
+	 *
+	 * @param dict the dictionary to publish, which must not be changed directly.
+	 * @param capacity how many of the latest changes are kept for followers.
+	 */
+	public PublishingDictionary(Dictionary<E, K> dict, int capacity) {
+		this.dict = dict;
+		this.log = new ChangeLog<E, K>(capacity);
+	}
+
+	/**
+	 * Delete an entry with key passed as the parameter,
+	 * publishing the delete if the key was there.
+	 * @param key The key we wish to delete from this dictionary.
+	 */
+	public synchronized void delete(K key) {
+		if(dict.search(key) == null) {
+			return; //nothing to delete
+		}
+		dict.delete(key);
+		log.append(ChangeEvent.DELETE, key, null);
+	}
+
+	/**
+	 * Returns the depth of the underlying tree.
+	 * @return the depth of the tree in integer form.
+	 */
+	public synchronized int depth() {
+		return dict.depth();
+	}
+
+	/**
+	 * Returns the sequence number of the latest change (0 if none).
+	 * @return the head of the change stream.
+	 */
+	public long getHead() {
+		return log.getHead();
+	}
+
+	/**
+	 * Insert a key-value pair, publishing the insert unless the key
+	 * was already there.
+	 */
+	public synchronized void insert(K key, E element) {
+		if(dict.search(key) != null) {
+			return; //cannot have duplicates
+		}
+		dict.insert(key, element);
+		log.append(ChangeEvent.INSERT, key, element);
+	}
+
+	/**
+	 * Adds up to max changes after the given sequence number to events,
+	 * waiting up to timeoutMillis for one to be made.
+	 * This does not hold the dictionary's lock while it waits.
+	 *
+	 * @return the sequence number of the latest change.
+	 */
+	public long poll(long after, int max, long timeoutMillis, List<ChangeEvent<E, K>> events) throws InterruptedException {
+		return log.read(after, max, timeoutMillis, events);
+	}
+
+	/**
+	 * Print the Dictionary in sorted order (as determined by the keys).
+	 */
+	public synchronized void printTree() {
+		dict.printTree();
+	}
+
+	/**
+	 * Returns the element with the given key, or null if not found.
+	 */
+	public synchronized E search(K key) {
+		return dict.search(key);
+	}
+
+	/**
+	 * Hands every entry to the visitor, and returns the sequence number
+	 * of the last change they include. The entries are copied holding
+	 * the lock and handed over after letting it go, so the visitor may
+	 * take as long as it likes.
+	 * @param visitor the visitor to give the entries to.
+	 * @return the change to follow on from.
+	 */
+	public long snapshot(DictionaryVisitor<E, K> visitor) throws IOException {
+		final List<K> keys = new ArrayList<K>();
+		final List<E> elements = new ArrayList<E>();
+		long seq;
+		synchronized(this) {
+			dict.traverse(new DictionaryVisitor<E, K>() {
+				public void visit(K key, E element) {
+					keys.add(key);
+					elements.add(element);
+				}
+			});
+			seq = log.getHead();
+		}
+		for(int i = 0; i < keys.size(); i++) {
+			visitor.visit(keys.get(i), elements.get(i));
+		}
+		return seq;
+	}
+
+	/**
+	 * Hands every entry to the visitor in sorted order.
+	 * @param visitor the visitor to give the entries to.
+	 */
+	public synchronized void traverse(DictionaryVisitor<E, K> visitor) throws IOException {
+		dict.traverse(visitor);
+	}
+}
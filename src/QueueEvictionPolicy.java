@@ -0,0 +1,46 @@
+// The "QueueEvictionPolicy" class.
+// Keeps the entries in a doubly linked list, oldest first, and evicts
+// from the front. For LRU a searched entry moves to the back of the
+// list, for FIFO it stays where it is.
+public class QueueEvictionPolicy<E, K extends Sortable> extends EvictionPolicy<E, K> {
+	protected final boolean moveOnAccess;
+
+	protected BoundedEntry<E, K> head, tail;
+
+	public QueueEvictionPolicy(boolean moveOnAccess) {
+		this.moveOnAccess = moveOnAccess;
+	} // QueueEvictionPolicy constructor
+
+	public void inserted(BoundedEntry<E, K> entry) {
+		entry.previous = tail;
+		entry.next = null;
+		if (tail != null)
+			tail.next = entry;
+		else
+			head = entry;
+		tail = entry;
+	} // inserted method
+
+	public void accessed(BoundedEntry<E, K> entry) {
+		if (moveOnAccess && entry != tail) {
+			removed(entry);
+			inserted(entry);
+		}
+	} // accessed method
+
+	public void removed(BoundedEntry<E, K> entry) {
+		if (entry.previous != null)
+			entry.previous.next = entry.next;
+		else
+			head = entry.next;
+		if (entry.next != null)
+			entry.next.previous = entry.previous;
+		else
+			tail = entry.previous;
+		entry.previous = entry.next = null;
+	} // removed method
+
+	public BoundedEntry<E, K> victim() {
+		return head;
+	} // victim method
+} /* QueueEvictionPolicy class */
@@ -0,0 +1,38 @@
+// The "RBNode" class.
+// A BSTNode which also knows its colour and its parent, as needed
+// by the bottom-up fix-ups of the red-black tree.
+public class RBNode<E, K extends Sortable> extends BSTNode<E, K> {
+	protected RBNode<E, K> parent;
+
+	protected boolean red;
+
+	public RBNode(K key, E element, RBNode<E, K> parent, boolean red) {
+		super(key, element, null, null);
+		this.parent = parent;
+		this.red = red;
+	} // RBNode constructor
+
+	public RBNode<E, K> getLeft() {
+		return (RBNode<E, K>) left;
+	} // getLeft method
+
+	public RBNode<E, K> getRight() {
+		return (RBNode<E, K>) right;
+	} // getRight method
+
+	public RBNode<E, K> getParent() {
+		return parent;
+	} // getParent method
+
+	public boolean isRed() {
+		return red;
+	} // isRed method
+
+	public void setParent(RBNode<E, K> node) {
+		parent = node;
+	} // setParent method
+
+	public void setRed(boolean red) {
+		this.red = red;
+	} // setRed method
+} /* RBNode class */
@@ -0,0 +1,239 @@
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * This class records the searches, inserts and deletes made on another
+ * dictionary to a compact binary trace (see WorkloadTrace), which
+ * WorkloadReplayer can play back against any engine later on.
+ *
+ * Each record holds the operation, the time since the previous one and
+ * the key's toString; elements are not recorded. If writing the trace
+ * fails, recording stops but the dictionary carries on working, and
+ * the error can be found with getFailure.
+ *
+ * Threads do not wait for each other to record: each puts its record on
+ * a queue, and once a batch has built up, whichever thread finds the
+ * trace free writes out everything queued so far. Only if the writing
+ * falls far behind do the others wait for it.
+ *
+ * @author Ryan Seys
+ */
+public class RecordingDictionary<E, K extends Sortable> implements Dictionary<E, K> {
+	// how many records are queued before they are written out.
+	protected static final int BATCH = 256;
+
+	// how many records may be queued before recording waits for the writer.
+	protected static final int MAX_QUEUED = 16 * BATCH;
+
+	protected final Dictionary<E, K> dict;
+
+	protected final DataOutputStream out; // only used holding writing.
+
+	protected final ConcurrentLinkedQueue<Record> queue = new ConcurrentLinkedQueue<Record>();
+
+	protected final AtomicInteger queued = new AtomicInteger(); // records in the queue, roughly.
+
+	protected final ReentrantLock writing = new ReentrantLock(); // held while writing out the queue.
+
+	protected long last = -1; // when the previous operation written was recorded.
+
+	protected volatile long recorded = 0; // the number of operations written.
+
+	protected volatile IOException failure; // what stopped the recording, if anything.
+
+	/**
+	 * Constructor which writes the trace header.
+	 *
+	 * @param dict the dictionary to record the operations on.
+	 * @param trace where to write the trace, closed by close.
+	 */
+	public RecordingDictionary(Dictionary<E, K> dict, OutputStream trace) throws IOException {
+		this.dict = dict;
+		this.out = new DataOutputStream(new BufferedOutputStream(trace, 1 << 16));
+		out.writeInt(WorkloadTrace.MAGIC);
+		out.writeInt(WorkloadTrace.VERSION);
+	}
+
+	/**
+	 * Writes out the rest of the trace and closes it.
+	 */
+	public void close() throws IOException {
+		writing.lock();
+		try {
+			drain();
+			out.close();
+		}
+		finally {
+			writing.unlock();
+		}
+		if(failure != null) {
+			throw failure;
+		}
+	}
+
+	/**
+	 * Delete an entry with key passed as the parameter.
+	 * @param key The key we wish to delete from this dictionary.
+	 */
+	public void delete(K key) {
+		record(WorkloadTrace.DELETE, key);
+		dict.delete(key);
+	}
+
+	/**
+	 * Returns the depth of the underlying tree.
+	 * @return the depth of the tree in integer form.
+	 */
+	public int depth() {
+		return dict.depth();
+	}
+
+	/**
+	 * Returns the error which stopped the recording, if any.
+	 * @return the failure, or null.
+	 */
+	public IOException getFailure() {
+		return failure;
+	}
+
+	/**
+	 * Returns the number of operations written to the trace so far,
+	 * which after close is all of them.
+	 * @return the record count.
+	 */
+	public long getRecorded() {
+		return recorded;
+	}
+
+	/**
+	 * Insert a key-value pair into the dictionary.
+	 */
+	public void insert(K key, E element) {
+		record(WorkloadTrace.INSERT, key);
+		dict.insert(key, element);
+	}
+
+	/**
+	 * Print the Dictionary in sorted order (as determined by the keys).
+	 */
+	public void printTree() {
+		dict.printTree();
+	}
+
+	/**
+	 * Writes out every queued record, in the order they were queued.
+	 * Threads which took their times at nearly the same moment may queue
+	 * them the other way round; such a record is given no gap after the
+	 * one before it rather than a negative one. Only called holding writing.
+	 */
+	void drain() {
+		Record record;
+		while((record = queue.poll()) != null) {
+			queued.decrementAndGet();
+			if(failure != null) {
+				continue; //recording has stopped, throw the rest away.
+			}
+			long time = Math.max(record.time, last);
+			try {
+				out.writeByte(record.op);
+				writeVarLong((last < 0) ? 0 : time - last);
+				out.writeUTF(record.key);
+				last = time;
+				recorded++;
+			}
+			catch(IOException e) {
+				failure = e;
+			}
+		}
+	}
+
+	/**
+	 * Queues one record for the trace, and writes out the queue if a
+	 * batch has built up and no other thread is already doing so.
+	 *
+	 * @param op the operation, one of the WorkloadTrace constants.
+	 * @param key the key it was given.
+	 */
+	void record(byte op, K key) {
+		if(failure != null) {
+			return; //recording has stopped.
+		}
+		queue.add(new Record(op, System.nanoTime(), String.valueOf(key)));
+		int count = queued.incrementAndGet();
+		if(count < BATCH) {
+			return;
+		}
+		if(count >= MAX_QUEUED) {
+			//the writer has fallen behind: wait for it rather than queue more.
+			writing.lock();
+			try {
+				drain();
+			}
+			finally {
+				writing.unlock();
+			}
+		}
+		//check again after letting go, in case a batch filled up just
+		//as the last writer finished.
+		while((queued.get() >= BATCH) && writing.tryLock()) {
+			try {
+				drain();
+			}
+			finally {
+				writing.unlock();
+			}
+		}
+	}
+
+	/**
+	 * Returns the element with the given key, or null if not found.
+	 */
+	public E search(K key) {
+		record(WorkloadTrace.SEARCH, key);
+		return dict.search(key);
+	}
+
+	/**
+	 * Hands every entry to the visitor in sorted order.
+	 * Traversals are not recorded.
+	 * @param visitor the visitor to give the entries to.
+	 */
+	public void traverse(DictionaryVisitor<E, K> visitor) throws IOException {
+		dict.traverse(visitor);
+	}
+
+	/**
+	 * Writes a non-negative long in 7-bit groups, low bits first, with the
+	 * top bit of each byte set when more follow.
+	 * @param value the value to write.
+	 */
+	void writeVarLong(long value) throws IOException {
+		while(value >= 0x80) {
+			out.writeByte((int) (value & 0x7f) | 0x80);
+			value >>>= 7;
+		}
+		out.writeByte((int) value);
+	}
+
+	/**
+	 * One operation waiting to be written to the trace.
+	 */
+	static class Record {
+		final byte op;
+
+		final long time; // System.nanoTime when it was recorded.
+
+		final String key;
+
+		Record(byte op, long time, String key) {
+			this.op = op;
+			this.time = time;
+			this.key = key;
+		}
+	}
+}
@@ -0,0 +1,236 @@
+/**
+ * This class is a cursor (or finger) on a RedBlackDictionary: it stays
+ * on an entry, and seeks and inserts start from there instead of from
+ * the root. Using the parent links it climbs only as far as the nearest
+ * ancestor whose subtree holds the new key, comparing keys only where
+ * that subtree ends, then walks down. Over a sweep in one direction,
+ * such as time-ordered inserts or merging with another sorted list,
+ * this costs O(log d) amortized for a key d entries on from the cursor,
+ * and O(1) for next and prev. A single move can still cost O(log n):
+ * going from just before a high ancestor's key to just after it climbs
+ * to that ancestor, however close the two keys are, as there are no
+ * links across the levels of the tree.
+ *
+ * Inserts made through the dictionary leave the cursor where it is.
+ * After a delete it finds its key again from the root, since deleting
+ * can move entries between nodes; if its own entry was deleted, it is
+ * left on no entry. It is not safe to use while another thread changes
+ * the tree.
+ *
+ * @author Ryan Seys
+ */
+public class RedBlackCursor<E, K extends Sortable> {
+	protected final RedBlackDictionary<E, K> dict;
+
+	protected RBNode<E, K> node; // the entry the cursor is on, or null.
+
+	protected K key; // the key of that entry, kept in case a delete moves it.
+
+	protected long deletes; // the dictionary's delete count when last positioned.
+
+	/**
+	 * Constructor for a cursor which is not on any entry yet.
+	 * @param dict the tree to move over.
+	 */
+	public RedBlackCursor(RedBlackDictionary<E, K> dict) {
+		this.dict = dict;
+		this.deletes = dict.deletes;
+	}
+
+	/**
+	 * Climbs from the cursor to the lowest node whose subtree holds the
+	 * place of the given key. Going right, everything in a subtree comes
+	 * before its "bound": the nearest ancestor it is on the left of.
+	 * The climb goes from bound to bound until one is after the key, so
+	 * only the bounds are compared with the key, and the walk down
+	 * starts from just below the last of them. Going left is the mirror
+	 * image.
+	 *
+	 * @param target the key to find the place of.
+	 * @return the node to walk down from.
+	 */
+	RBNode<E, K> climb(K target) {
+		if(dict.deletes != deletes) {
+			//the cursor's node may have been removed, so start again.
+			node = (key == null) ? null : (RBNode<E, K>) dict.searchNode(key);
+			deletes = dict.deletes;
+		}
+		if(node == null) {
+			return (RBNode<E, K>) dict.root;
+		}
+		int cmp = target.compareTo(node.getKey());
+		RBNode<E, K> top = node;
+		while(cmp != 0) {
+			//find the bound of top's subtree in the direction of the key.
+			RBNode<E, K> below = top;
+			while((below.getParent() != null) && (below == ((cmp > 0) ? below.getParent().getRight() : below.getParent().getLeft()))) {
+				below = below.getParent();
+			}
+			RBNode<E, K> bound = below.getParent();
+			if(bound == null) {
+				return top; //nothing bounds it, so the key belongs below top.
+			}
+			int side = target.compareTo(bound.getKey());
+			if(side == 0) {
+				return bound;
+			}
+			if((side > 0) != (cmp > 0)) {
+				return top; //the key comes before the bound, so it belongs below top.
+			}
+			top = bound;
+		}
+		return top;
+	}
+
+	/**
+	 * Returns the element of the entry the cursor is on.
+	 * @return the element, or null if the cursor is not on an entry.
+	 */
+	public E getElement() {
+		return isValid() ? node.getElement() : null;
+	}
+
+	/**
+	 * Returns the key of the entry the cursor is on.
+	 * @return the key, or null if the cursor is not on an entry.
+	 */
+	public K getKey() {
+		return isValid() ? node.getKey() : null;
+	}
+
+	/**
+	 * Inserts a key-value pair, starting the search for its place from the
+	 * cursor, and moves the cursor onto it. Duplicate keys are ignored,
+	 * but the cursor still moves onto the entry already there.
+	 *
+	 * @param key the key value of the entry to be inserted
+	 * @param element the element value of the entry to be inserted
+	 * @return true if the entry was inserted.
+	 */
+	public boolean insertAtCursor(K key, E element) {
+		RBNode<E, K> parent = null;
+		RBNode<E, K> current = climb(key);
+		int cmp = 0;
+		while(current != null) {
+			cmp = key.compareTo(current.getKey());
+			if(cmp == 0) {
+				moveTo(current);
+				return false; //cannot have duplicates
+			}
+			parent = current;
+			current = (cmp < 0) ? current.getLeft() : current.getRight();
+		}
+		moveTo(dict.attach(parent, cmp, key, element));
+		return true;
+	}
+
+	/**
+	 * Whether the cursor is on an entry.
+	 * @return false before the first seek, or after moving off either end.
+	 */
+	public boolean isValid() {
+		if(dict.deletes != deletes) {
+			climb(key); //find the entry again.
+		}
+		return node != null;
+	}
+
+	/**
+	 * Puts the cursor on a node.
+	 * @param target the node, or null for no entry.
+	 */
+	void moveTo(RBNode<E, K> target) {
+		node = target;
+		key = (target == null) ? null : target.getKey();
+		deletes = dict.deletes;
+	}
+
+	/**
+	 * Moves the cursor to the next entry in sorted order.
+	 * @return false if there is none, which leaves the cursor on no entry.
+	 */
+	public boolean next() {
+		if(!isValid()) {
+			return false;
+		}
+		moveTo(successor(node));
+		return node != null;
+	}
+
+	/**
+	 * Moves the cursor to the previous entry in sorted order.
+	 * @return false if there is none, which leaves the cursor on no entry.
+	 */
+	public boolean prev() {
+		if(!isValid()) {
+			return false;
+		}
+		RBNode<E, K> current = node;
+		if(current.getLeft() != null) {
+			current = current.getLeft();
+			while(current.getRight() != null) {
+				current = current.getRight();
+			}
+		}
+		else {
+			//climb until we come up from a right child.
+			while((current.getParent() != null) && (current == current.getParent().getLeft())) {
+				current = current.getParent();
+			}
+			current = current.getParent();
+		}
+		moveTo(current);
+		return node != null;
+	}
+
+	/**
+	 * Moves the cursor to the entry with the given key, or if there is
+	 * none, to the first entry after it.
+	 *
+	 * @param key the key to look for.
+	 * @return true if an entry with exactly that key was found.
+	 */
+	public boolean seek(K key) {
+		RBNode<E, K> current = climb(key);
+		RBNode<E, K> last = null;
+		RBNode<E, K> after = null; // the smallest key after the one wanted, so far.
+		while(current != null) {
+			int cmp = key.compareTo(current.getKey());
+			if(cmp == 0) {
+				moveTo(current);
+				return true;
+			}
+			last = current;
+			if(cmp < 0) {
+				after = current;
+				current = current.getLeft();
+			}
+			else {
+				current = current.getRight();
+			}
+		}
+		//nothing in the subtree comes after the key, so look beyond it.
+		moveTo((after != null) ? after : ((last == null) ? null : successor(last)));
+		return false;
+	}
+
+	/**
+	 * Returns the node after the given one in sorted order.
+	 * @param current the node to start from.
+	 * @return the next node, or null if it is the last.
+	 */
+	RBNode<E, K> successor(RBNode<E, K> current) {
+		if(current.getRight() != null) {
+			current = current.getRight();
+			while(current.getLeft() != null) {
+				current = current.getLeft();
+			}
+			return current;
+		}
+		//climb until we come up from a left child.
+		while((current.getParent() != null) && (current == current.getParent().getRight())) {
+			current = current.getParent();
+		}
+		return current.getParent();
+	}
+}
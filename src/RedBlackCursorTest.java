@@ -0,0 +1,99 @@
+import java.util.Map;
+import java.util.Random;
+import java.util.TreeMap;
+
+// The "RedBlackCursorTest" class.
+// This class moves a RedBlackCursor around a RedBlackDictionary with a
+// random mix of seek, next, prev and insertAtCursor, mostly close to
+// where the cursor is but sometimes far away, while deleting entries
+// through the dictionary in between. After every step the cursor's
+// entry is checked against a TreeMap given the same changes, and at the
+// end the whole tree is checked against it.
+// Arguments: steps (default 200000), keys (default 5000).
+public class RedBlackCursorTest {
+	protected static SortableString key(int i) {
+		// zero-padded so that string order is number order
+		String s = Integer.toString(i);
+		return new SortableString("0000000000".substring(s.length()) + s);
+	} // key method
+
+	public static void main(String[] args) throws Exception {
+		int steps = (args.length > 0) ? Integer.parseInt(args[0]) : 200000;
+		int keys = (args.length > 1) ? Integer.parseInt(args[1]) : 5000;
+		RedBlackDictionary<Integer, SortableString> dict = new RedBlackDictionary<Integer, SortableString>();
+		TreeMap<Integer, Integer> expected = new TreeMap<Integer, Integer>();
+		RedBlackCursor<Integer, SortableString> cursor = dict.cursor();
+		Integer at = null; // where the cursor should be
+		Random random = new Random(7);
+		int wrong = 0;
+		for (int step = 0; step < steps; step++) {
+			// a key near the cursor, or now and then anywhere
+			int target = (at == null || random.nextInt(8) == 0) ? random.nextInt(keys)
+					: Math.max(0, Math.min(keys - 1, at + random.nextInt(41) - 20));
+			int op = random.nextInt(10);
+			if (op < 3) {
+				boolean inserted = cursor.insertAtCursor(key(target), target);
+				if (inserted != !expected.containsKey(target))
+					wrong++;
+				expected.put(target, target);
+				at = target;
+			} else if (op < 5) {
+				boolean found = cursor.seek(key(target));
+				if (found != expected.containsKey(target))
+					wrong++;
+				at = expected.ceilingKey(target);
+			} else if (op < 7) {
+				boolean moved = cursor.next();
+				Integer next = (at == null) ? null : expected.higherKey(at);
+				if (moved != (next != null))
+					wrong++;
+				at = next;
+			} else if (op < 9) {
+				boolean moved = cursor.prev();
+				Integer previous = (at == null) ? null : expected.lowerKey(at);
+				if (moved != (previous != null))
+					wrong++;
+				at = previous;
+			} else {
+				// delete near the cursor, sometimes its own entry
+				dict.delete(key(target));
+				expected.remove(target);
+				if (at != null && at == target)
+					at = null;
+			}
+			Integer element = cursor.getElement();
+			if ((element == null) ? at != null : !element.equals(at)
+					|| !cursor.getKey().equals(key(at)))
+				wrong++;
+		}
+
+		// the tree must hold exactly the TreeMap's entries, in order
+		final TreeMap<Integer, Integer> found = new TreeMap<Integer, Integer>();
+		final int[] unordered = { 0 };
+		dict.traverse(new DictionaryVisitor<Integer, SortableString>() {
+			public void visit(SortableString key, Integer element) {
+				if (!found.isEmpty() && element <= found.lastKey())
+					unordered[0]++;
+				found.put(element, element);
+			}
+		});
+		if (unordered[0] > 0 || !found.equals(expected))
+			wrong++;
+		// and a sweep with next from the first entry must visit them all
+		int swept = 0;
+		if (!expected.isEmpty() && cursor.seek(key(expected.firstKey()))) {
+			for (Map.Entry<Integer, Integer> entry : expected.entrySet()) {
+				if (!entry.getValue().equals(cursor.getElement()))
+					wrong++;
+				swept++;
+				cursor.next();
+			}
+			if (cursor.isValid())
+				wrong++;
+		}
+		System.out.println(steps + " cursor steps: " + expected.size()
+				+ " entries left, " + swept + " swept in order, depth "
+				+ dict.depth());
+		System.out.println(wrong + " wrong");
+	} // main method
+} /* RedBlackCursorTest class */
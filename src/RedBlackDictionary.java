@@ -0,0 +1,306 @@
+/**
+ * This class represents a red-black tree dictionary.
+ * It shares searching, printing and depth counting with BSTDictionary,
+ * and only replaces insert and delete so that the tree stays balanced.
+ * Every insert does at most 2 rotations and every delete at most 3,
+ * the rest of the fix-up work is only recolouring.
+ *
+ * @author Ryan Seys
+ */
+public class RedBlackDictionary<E, K extends Sortable> extends BSTDictionary<E, K> {
+	protected long rotations = 0; // the number of rotations done so far.
+
+	protected long deletes = 0; // the number of deletes, which may move entries between nodes.
+
+	/**
+	 * Constructor for the red-black tree.
+	 */
+	public RedBlackDictionary() {
+		super(null);
+	}
+
+	/**
+	 * Adds a red node for a new entry under the given parent and restores
+	 * the red-black properties.
+	 *
+	 * @param parent the node to add it under (null if the tree is empty).
+	 * @param cmp how the key compares with the parent's key.
+	 * @param key the key value of the entry to be inserted
+	 * @param element the element value of the entry to be inserted
+	 * @return the new node.
+	 */
+	RBNode<E, K> attach(RBNode<E, K> parent, int cmp, K key, E element) {
+		RBNode<E, K> added = new RBNode<E, K>(key, element, parent, true);
+		if(parent == null) {
+			root = added;
+		}
+		else if(cmp < 0) {
+			parent.setLeft(added);
+		}
+		else {
+			parent.setRight(added);
+		}
+		insertFixup(added);
+		return added;
+	}
+
+	/**
+	 * Returns a cursor on this tree, which is not yet on any entry.
+	 * @return a new cursor.
+	 */
+	public RedBlackCursor<E, K> cursor() {
+		return new RedBlackCursor<E, K>(this);
+	}
+
+	/**
+	 * Returns the colour of a node, missing nodes are black.
+	 * @param node the node to check (may be null).
+	 * @return true if the node exists and is red.
+	 */
+	boolean isRed(RBNode<E, K> node) {
+		return (node != null) && node.isRed();
+	}
+
+	/**
+	 * Delete an entry with key passed as the parameter.
+	 * If the node has two children, its successor's entry is moved into it
+	 * and the successor (which has at most one child) is removed instead.
+	 * @param key The key we wish to delete from this tree.
+	 */
+	public void delete(K key) {
+		RBNode<E, K> node = (RBNode<E, K>) searchNode(key);
+		if(node == null) {
+			return; //nothing to delete
+		}
+		deletes++;
+		if((node.getLeft() != null) && (node.getRight() != null)) {
+			RBNode<E, K> successor = (RBNode<E, K>) findMin(node.getRight());
+			node.setKey(successor.getKey());
+			node.setElement(successor.getElement());
+			node = successor;
+		}
+		//the node now has at most one child, which takes its place.
+		RBNode<E, K> child = (node.getLeft() != null) ? node.getLeft() : node.getRight();
+		RBNode<E, K> parent = node.getParent();
+		replace(node, child);
+		//removing a black node leaves one path short of a black node.
+		if(!node.isRed()) {
+			deleteFixup(child, parent);
+		}
+	}
+
+	/**
+	 * Restores the red-black properties after a black node was removed
+	 * from above the (possibly missing) node passed in.
+	 *
+	 * @param node the node which is "doubly black".
+	 * @param parent the parent of that node (needed when the node is null).
+	 */
+	void deleteFixup(RBNode<E, K> node, RBNode<E, K> parent) {
+		while((node != root) && !isRed(node)) {
+			if(node == parent.getLeft()) {
+				RBNode<E, K> sibling = parent.getRight();
+				if(isRed(sibling)) {
+					//make the sibling black so one of the cases below applies.
+					sibling.setRed(false);
+					parent.setRed(true);
+					rotateLeft(parent);
+					sibling = parent.getRight();
+				}
+				if(!isRed(sibling.getLeft()) && !isRed(sibling.getRight())) {
+					//push the missing black up the tree.
+					sibling.setRed(true);
+					node = parent;
+					parent = node.getParent();
+				}
+				else {
+					if(!isRed(sibling.getRight())) {
+						sibling.getLeft().setRed(false);
+						sibling.setRed(true);
+						rotateRight(sibling);
+						sibling = parent.getRight();
+					}
+					sibling.setRed(parent.isRed());
+					parent.setRed(false);
+					sibling.getRight().setRed(false);
+					rotateLeft(parent);
+					node = (RBNode<E, K>) root; //done
+				}
+			}
+			else {
+				RBNode<E, K> sibling = parent.getLeft();
+				if(isRed(sibling)) {
+					sibling.setRed(false);
+					parent.setRed(true);
+					rotateRight(parent);
+					sibling = parent.getLeft();
+				}
+				if(!isRed(sibling.getLeft()) && !isRed(sibling.getRight())) {
+					sibling.setRed(true);
+					node = parent;
+					parent = node.getParent();
+				}
+				else {
+					if(!isRed(sibling.getLeft())) {
+						sibling.getRight().setRed(false);
+						sibling.setRed(true);
+						rotateLeft(sibling);
+						sibling = parent.getLeft();
+					}
+					sibling.setRed(parent.isRed());
+					parent.setRed(false);
+					sibling.getLeft().setRed(false);
+					rotateRight(parent);
+					node = (RBNode<E, K>) root; //done
+				}
+			}
+		}
+		if(node != null) {
+			node.setRed(false);
+		}
+	}
+
+	/**
+	 * Returns the number of rotations done by inserts and deletes so far.
+	 * @return the rotation count.
+	 */
+	public long getRotations() {
+		return rotations;
+	}
+
+	/**
+	 * Insert a key-value pair into the red-black tree.
+	 * Duplicate keys are ignored, as in BSTDictionary.
+	 */
+	public void insert(K key, E element) {
+		RBNode<E, K> parent = null;
+		RBNode<E, K> node = (RBNode<E, K>) root;
+		int cmp = 0;
+		//walk down to where the key belongs.
+		while(node != null) {
+			cmp = key.compareTo(node.getKey());
+			if(cmp == 0) {
+				return; //cannot have duplicates
+			}
+			parent = node;
+			node = (cmp < 0) ? node.getLeft() : node.getRight();
+		}
+		attach(parent, cmp, key, element);
+	}
+
+	/**
+	 * Restores the red-black properties after a red node was added.
+	 * @param node the newly added red node.
+	 */
+	void insertFixup(RBNode<E, K> node) {
+		while(isRed(node.getParent())) {
+			RBNode<E, K> parent = node.getParent();
+			RBNode<E, K> grandparent = parent.getParent();
+			if(parent == grandparent.getLeft()) {
+				RBNode<E, K> uncle = grandparent.getRight();
+				if(isRed(uncle)) {
+					//only recolour and continue further up.
+					parent.setRed(false);
+					uncle.setRed(false);
+					grandparent.setRed(true);
+					node = grandparent;
+				}
+				else {
+					if(node == parent.getRight()) {
+						//left-right case, turn it into the left-left case.
+						node = parent;
+						rotateLeft(node);
+						parent = node.getParent();
+					}
+					parent.setRed(false);
+					grandparent.setRed(true);
+					rotateRight(grandparent);
+				}
+			}
+			else {
+				RBNode<E, K> uncle = grandparent.getLeft();
+				if(isRed(uncle)) {
+					parent.setRed(false);
+					uncle.setRed(false);
+					grandparent.setRed(true);
+					node = grandparent;
+				}
+				else {
+					if(node == parent.getLeft()) {
+						//right-left case, turn it into the right-right case.
+						node = parent;
+						rotateRight(node);
+						parent = node.getParent();
+					}
+					parent.setRed(false);
+					grandparent.setRed(true);
+					rotateLeft(grandparent);
+				}
+			}
+		}
+		((RBNode<E, K>) root).setRed(false);
+	}
+
+	/**
+	 * Print the Dictionary in sorted order (as determined by the keys)
+	 * to print in sorted order, we traverse and print the tree "inorder".
+	 */
+	public void printTree() {
+		System.out.println("\nPrinting the Red-Black Tree below...");
+		ExportSink.print(this);
+	}
+
+	/**
+	 * Puts a node in the place of another one under its parent.
+	 *
+	 * @param node the node being replaced.
+	 * @param replacement the node to take its place (may be null).
+	 */
+	void replace(RBNode<E, K> node, RBNode<E, K> replacement) {
+		RBNode<E, K> parent = node.getParent();
+		if(parent == null) {
+			root = replacement;
+		}
+		else if(node == parent.getLeft()) {
+			parent.setLeft(replacement);
+		}
+		else {
+			parent.setRight(replacement);
+		}
+		if(replacement != null) {
+			replacement.setParent(parent);
+		}
+	}
+
+	/**
+	 * Rotates a node down to the left, its right child takes its place.
+	 * @param node the node which we need to perform the rotate on.
+	 */
+	void rotateLeft(RBNode<E, K> node) {
+		RBNode<E, K> newCenter = node.getRight();
+		node.setRight(newCenter.getLeft());
+		if(newCenter.getLeft() != null) {
+			newCenter.getLeft().setParent(node);
+		}
+		replace(node, newCenter);
+		newCenter.setLeft(node);
+		node.setParent(newCenter);
+		rotations++;
+	}
+
+	/**
+	 * Rotates a node down to the right, its left child takes its place.
+	 * @param node the node which we need to perform the rotate on.
+	 */
+	void rotateRight(RBNode<E, K> node) {
+		RBNode<E, K> newCenter = node.getLeft();
+		node.setLeft(newCenter.getRight());
+		if(newCenter.getRight() != null) {
+			newCenter.getRight().setParent(node);
+		}
+		replace(node, newCenter);
+		newCenter.setRight(node);
+		node.setParent(newCenter);
+		rotations++;
+	}
+}
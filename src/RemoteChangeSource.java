@@ -0,0 +1,91 @@
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.net.Socket;
+import java.util.List;
+
+/**
+ * This class is a ChangeSource in another process (or on another
+ * machine), reached through the ChangeLogServer serving it.
+ * Requests are sent one at a time over a single connection.
+ *
+ * @author Ryan Seys
+ */
+public class RemoteChangeSource<E, K extends Sortable> implements ChangeSource<E, K> {
+	protected final Socket socket;
+
+	protected final ObjectOutputStream out;
+
+	protected final ObjectInputStream in;
+
+	/**
+	 * Constructor which connects to a ChangeLogServer.
+	 *
+	 * @param host the host the server runs on.
+	 * @param port the port the server listens on.
+	 */
+	public RemoteChangeSource(String host, int port) throws IOException {
+		this.socket = new Socket(host, port);
+		socket.setTcpNoDelay(true);
+		this.out = new ObjectOutputStream(new BufferedOutputStream(socket.getOutputStream()));
+		out.flush(); //send the stream header before waiting for the server's.
+		this.in = new ObjectInputStream(new BufferedInputStream(socket.getInputStream()));
+	}
+
+	/**
+	 * Closes the connection.
+	 */
+	public void close() throws IOException {
+		socket.close();
+	}
+
+	/**
+	 * Asks the server for the changes after the given one.
+	 * The server waits for new changes, not this side.
+	 */
+	@SuppressWarnings("unchecked")
+	public synchronized long poll(long after, int max, long timeoutMillis, List<ChangeEvent<E, K>> events) throws IOException {
+		out.writeInt(ChangeLogServer.POLL);
+		out.writeLong(after);
+		out.writeInt(max);
+		out.writeLong(timeoutMillis);
+		out.flush();
+		if(!in.readBoolean()) {
+			throw new IllegalArgumentException(in.readUTF());
+		}
+		long head = in.readLong();
+		int count = in.readInt();
+		try {
+			for(int i = 0; i < count; i++) {
+				events.add((ChangeEvent<E, K>) in.readObject());
+			}
+		}
+		catch(ClassNotFoundException e) {
+			throw new IOException("unknown class in change stream: " + e.getMessage());
+		}
+		return head;
+	}
+
+	/**
+	 * Has the server send every entry, handing them to the visitor as
+	 * they arrive.
+	 */
+	@SuppressWarnings("unchecked")
+	public synchronized long snapshot(DictionaryVisitor<E, K> visitor) throws IOException {
+		out.writeInt(ChangeLogServer.SNAPSHOT);
+		out.flush();
+		try {
+			while(in.readBoolean()) {
+				K key = (K) in.readObject();
+				E element = (E) in.readObject();
+				visitor.visit(key, element);
+			}
+		}
+		catch(ClassNotFoundException e) {
+			throw new IOException("unknown class in snapshot: " + e.getMessage());
+		}
+		return in.readLong();
+	}
+}
@@ -0,0 +1,139 @@
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.CountDownLatch;
+
+// The "ReplicationTest" class.
+// This class runs a PublishingDictionary (over an AVLDictionary) with
+// two loopback followers on one machine: one reading the change stream
+// in-process, and one through a ChangeLogServer on a local socket.
+// The leader is given some entries before the followers start, so they
+// catch up from a snapshot, and then random inserts and deletes while
+// they follow. It prints the lag and throughput of each follower and
+// checks that both end up with the same entries as the leader, and
+// that a follower which cannot apply the changes reports why it stopped
+// and that a stalled snapshot does not hold up the leader's writes.
+// Argument: the number of changes (default 200000).
+public class ReplicationTest {
+	protected static final int KEYS = 50000;
+
+	public static void main(String[] args) throws Exception {
+		int changes = (args.length > 0) ? Integer.parseInt(args[0]) : 200000;
+		PublishingDictionary<String, SortableString> leader = new PublishingDictionary<String, SortableString>(
+				new AVLDictionary<String, SortableString>(), 65536);
+		Random random = new Random(3);
+		for (int i = 0; i < KEYS / 2; i++) {
+			String s = Integer.toString(random.nextInt(KEYS));
+			leader.insert(new SortableString(s), s);
+		}
+
+		ChangeLogServer<String, SortableString> server = new ChangeLogServer<String, SortableString>(
+				leader, 0);
+		RemoteChangeSource<String, SortableString> remote = new RemoteChangeSource<String, SortableString>(
+				"localhost", server.getPort());
+		Follower<String, SortableString> local = new Follower<String, SortableString>(
+				new AVLDictionary<String, SortableString>(), leader, 1024);
+		Follower<String, SortableString> socket = new Follower<String, SortableString>(
+				new AVLDictionary<String, SortableString>(), remote, 1024);
+
+		long maxLocalLag = 0, maxSocketLag = 0;
+		long start = System.nanoTime();
+		for (int i = 0; i < changes; i++) {
+			String s = Integer.toString(random.nextInt(KEYS));
+			if (random.nextBoolean())
+				leader.insert(new SortableString(s), s);
+			else
+				leader.delete(new SortableString(s));
+			if (i % 1000 == 0) {
+				maxLocalLag = Math.max(maxLocalLag, leader.getHead() - local.getAppliedSeq());
+				maxSocketLag = Math.max(maxSocketLag, leader.getHead() - socket.getAppliedSeq());
+			}
+		}
+		long head = leader.getHead();
+		boolean caughtUp = local.awaitSeq(head, 30000) && socket.awaitSeq(head, 30000);
+		double seconds = (System.nanoTime() - start) / 1e9;
+
+		System.out.println(changes + " changes (" + head + " published) in "
+				+ (long) (seconds * 1000) + " ms, followers caught up: " + caughtUp);
+		report("in-process", local, maxLocalLag);
+		report("socket", socket, maxSocketLag);
+		List<String> expected = entries(leader);
+		System.out.println("Same entries as the leader: in-process "
+				+ expected.equals(entries(local)) + ", socket "
+				+ expected.equals(entries(socket)));
+
+		// a follower whose copy cannot take the changes must stop and say
+		// so, rather than leave awaitSeq waiting out its whole timeout
+		Follower<String, SortableString> broken = new Follower<String, SortableString>(
+				new AVLDictionary<String, SortableString>() {
+					public void insert(SortableString key, String element) {
+						throw new IllegalStateException("this copy is full");
+					}
+				}, leader, 1024);
+		long waitStart = System.nanoTime();
+		boolean brokenCaughtUp = broken.awaitSeq(head, 30000);
+		System.out.println("Failing follower: caught up " + brokenCaughtUp
+				+ ", stopped by " + broken.getFailure() + " after "
+				+ (System.nanoTime() - waitStart) / 1000000 + " ms");
+
+		// a snapshot whose reader stalls (like a slow remote follower) must
+		// not keep the leader from taking changes
+		final CountDownLatch stalled = new CountDownLatch(1);
+		final CountDownLatch release = new CountDownLatch(1);
+		final PublishingDictionary<String, SortableString> published = leader;
+		Thread reader = new Thread() {
+			public void run() {
+				try {
+					published.snapshot(new DictionaryVisitor<String, SortableString>() {
+						public void visit(SortableString key, String element)
+								throws IOException {
+							stalled.countDown();
+							try {
+								release.await();
+							} catch (InterruptedException e) {
+								throw new IOException("interrupted");
+							}
+						}
+					});
+				} catch (IOException e) {
+					// the test only cares about the leader
+				}
+			}
+		};
+		reader.start();
+		stalled.await();
+		long writeStart = System.nanoTime();
+		leader.insert(new SortableString("during snapshot"), "x");
+		long writeMillis = (System.nanoTime() - writeStart) / 1000000;
+		release.countDown();
+		reader.join();
+		System.out.println("Write during a stalled snapshot took " + writeMillis
+				+ " ms");
+
+		broken.stop();
+		local.stop();
+		socket.stop();
+		remote.close();
+		server.close();
+	} // main method
+
+	// Lists every entry of the dictionary in order
+	static List<String> entries(Dictionary<String, SortableString> dict)
+			throws IOException {
+		final List<String> entries = new ArrayList<String>();
+		dict.traverse(new DictionaryVisitor<String, SortableString>() {
+			public void visit(SortableString key, String element) {
+				entries.add(key + "=" + element);
+			}
+		});
+		return entries;
+	} // entries method
+
+	static void report(String name, Follower<?, ?> follower, long maxLag) {
+		System.out.println(name + ": " + follower.getSnapshots()
+				+ " snapshot, " + follower.getApplied() + " changes applied, "
+				+ (long) follower.getThroughput() + " changes/s, max lag "
+				+ maxLag + ", lag now " + follower.getLag());
+	} // report method
+} /* ReplicationTest class */
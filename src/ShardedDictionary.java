@@ -0,0 +1,417 @@
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * This class represents a dictionary split into several AVL trees (shards)
+ * by key range, so that threads working on different ranges never wait
+ * for each other. Shard i holds the keys from bound i-1 (inclusive) up to
+ * bound i (exclusive), and each shard has its own read/write lock.
+ * An operation only ever takes the lock of the one shard it routes to,
+ * so there is nothing shared between threads working on different
+ * shards, and throughput grows with the number of shards.
+ *
+ * When one shard grows to more than SKEW times the average size of the
+ * other shards, the bounds are recomputed from the keys and every shard
+ * is rebuilt with the same number of entries. The old shards are then
+ * marked as retired, so an operation which routed with the old bounds
+ * finds this once it has the shard's lock, and routes again.
+ *
+ * @author Ryan Seys
+ */
+public class ShardedDictionary<E, K extends Sortable> implements Dictionary<E, K> {
+	// a shard is rebalanced once it is this many times the average size.
+	public static final int SKEW = 2;
+
+	// shards smaller than this are never rebalanced; skew is also only
+	// checked each time a shard has grown by this many entries.
+	public static final int MIN_REBALANCE_SIZE = 64;
+
+	volatile Layout<E, K> layout; // the current shards and their bounds.
+
+	volatile int rebalances = 0; // the number of times the bounds were recomputed.
+
+	// held while rebalancing, so only one thread rebalances at a time.
+	protected final Object rebalanceLock = new Object();
+
+	/**
+	 * Constructor for the sharded dictionary.
+	 * @param count the number of shards to use.
+	 */
+	public ShardedDictionary(int count) {
+		if(count < 1) {
+			throw new IllegalArgumentException("Need at least one shard.");
+		}
+		layout = new Layout<E, K>(newShards(count), new ArrayList<K>());
+	}
+
+	/**
+	 * Delete an entry with key passed as the parameter.
+	 * @param key The key we wish to delete from this dictionary.
+	 */
+	public void delete(K key) {
+		Shard<E, K> shard = lockShard(key, true);
+		try {
+			//AVLDictionary cannot delete from an empty tree, so check first.
+			if(shard.dict.search(key) != null) {
+				shard.dict.delete(key);
+				shard.size--;
+			}
+		}
+		finally {
+			shard.lock.writeLock().unlock();
+		}
+	}
+
+	/**
+	 * Returns the depth of the deepest shard.
+	 * @return the depth in integer form.
+	 */
+	public int depth() {
+		Layout<E, K> current = lockAll();
+		try {
+			int depth = 0;
+			for(Shard<E, K> shard : current.shards) {
+				depth = Math.max(depth, shard.dict.depth());
+			}
+			return depth;
+		}
+		finally {
+			unlockAll(current);
+		}
+	}
+
+	/**
+	 * Returns the number of times the shards were rebalanced.
+	 * @return the rebalance count.
+	 */
+	public int getRebalances() {
+		return rebalances;
+	}
+
+	/**
+	 * Returns the number of entries in each shard, in key order.
+	 * @return the shard sizes.
+	 */
+	public int[] getShardSizes() {
+		Layout<E, K> current = lockAll();
+		try {
+			int[] sizes = new int[current.shards.length];
+			for(int i = 0; i < sizes.length; i++) {
+				sizes[i] = current.shards[i].size;
+			}
+			return sizes;
+		}
+		finally {
+			unlockAll(current);
+		}
+	}
+
+	/**
+	 * Insert a key-value pair into the shard owning the key.
+	 * Duplicate keys are ignored, as in AVLDictionary.
+	 */
+	public void insert(K key, E element) {
+		int grown = 0; // the shard's new size, if the key was inserted.
+		Shard<E, K> shard = lockShard(key, true);
+		try {
+			if(shard.dict.search(key) == null) {
+				shard.dict.insert(key, element);
+				grown = ++shard.size;
+			}
+		}
+		finally {
+			shard.lock.writeLock().unlock();
+		}
+		//adding up the sizes reads every shard, so only do it now and then.
+		if((grown > 0) && (grown % MIN_REBALANCE_SIZE == 0) && layout.isSkewed(grown)) {
+			rebalance();
+		}
+	}
+
+	/**
+	 * Read-locks every shard of the current layout, in order.
+	 * @return the layout whose shards are now locked.
+	 */
+	Layout<E, K> lockAll() {
+		while(true) {
+			Layout<E, K> current = layout;
+			for(Shard<E, K> shard : current.shards) {
+				shard.lock.readLock().lock();
+			}
+			//shards are all retired at once, under all their write locks.
+			if(!current.shards[0].retired) {
+				return current;
+			}
+			unlockAll(current);
+		}
+	}
+
+	/**
+	 * Locks the shard which owns a key. If the shard turns out to have
+	 * been retired by a rebalance, the key is routed again.
+	 *
+	 * @param key the key to look for.
+	 * @param write whether to take the write lock rather than the read lock.
+	 * @return the shard, now locked.
+	 */
+	Shard<E, K> lockShard(K key, boolean write) {
+		while(true) {
+			Shard<E, K> shard = layout.route(key);
+			Lock lock = write ? shard.lock.writeLock() : shard.lock.readLock();
+			lock.lock();
+			if(!shard.retired) {
+				return shard;
+			}
+			lock.unlock(); //rebalanced since we routed.
+		}
+	}
+
+	/**
+	 * Lists the nodes of every shard in sorted order. The shards cover
+	 * increasing key ranges, so they are simply walked one after the
+	 * other. The nodes are live, so this is only for rebalance, which
+	 * holds every shard's write lock.
+	 *
+	 * @param current the layout whose shards are locked.
+	 * @return the nodes in key order.
+	 */
+	ArrayList<BSTNode<E, K>> nodes(Layout<E, K> current) {
+		ArrayList<BSTNode<E, K>> all = new ArrayList<BSTNode<E, K>>(current.total());
+		for(Shard<E, K> shard : current.shards) {
+			InorderIterator<E, K> nodes = new InorderIterator<E, K>(shard.dict.root);
+			while(nodes.hasNext()) {
+				all.add(nodes.next());
+			}
+		}
+		return all;
+	}
+
+	/**
+	 * Makes an array of empty shards.
+	 * @param count the number of shards.
+	 * @return the new shards.
+	 */
+	@SuppressWarnings("unchecked")
+	Shard<E, K>[] newShards(int count) {
+		Shard<E, K>[] created = (Shard<E, K>[]) new Shard<?, ?>[count];
+		for(int i = 0; i < count; i++) {
+			created[i] = new Shard<E, K>();
+		}
+		return created;
+	}
+
+	/**
+	 * Print the Dictionary in sorted order (as determined by the keys).
+	 * Writers are blocked while printing.
+	 */
+	public void printTree() {
+		System.out.println("\nPrinting the Sharded AVL Trees below...");
+		ExportSink.print(this);
+	}
+
+	/**
+	 * Recomputes the bounds so every shard gets the same number of entries,
+	 * and rebuilds the shards. Does nothing if another thread already did it.
+	 */
+	void rebalance() {
+		synchronized(rebalanceLock) {
+			Layout<E, K> old = layout;
+			for(Shard<E, K> shard : old.shards) {
+				shard.lock.writeLock().lock();
+			}
+			try {
+				int total = old.total();
+				boolean skewed = false;
+				for(Shard<E, K> shard : old.shards) {
+					skewed = skewed || old.isSkewed(shard.size, total);
+				}
+				if(!skewed) {
+					return; //another thread rebalanced first
+				}
+				Shard<E, K>[] rebuilt = newShards(old.shards.length);
+				ArrayList<K> newBounds = new ArrayList<K>();
+				ArrayList<BSTNode<E, K>> all = nodes(old);
+				//shard i gets the nodes from all.size() * i / n on, so the
+				//sizes differ by at most one and none is left empty (rounding
+				//every shard up would leave the last ones with nothing).
+				int start = 0;
+				for(int i = 0; i < rebuilt.length; i++) {
+					int end = (int) ((long) all.size() * (i + 1) / rebuilt.length);
+					if(i > 0) {
+						newBounds.add(all.get(start).getKey());
+					}
+					rebuilt[i].dict.root = build(rebuilt[i].dict, all, start, end - 1);
+					rebuilt[i].size = end - start;
+					start = end;
+				}
+				for(Shard<E, K> shard : old.shards) {
+					shard.retired = true;
+				}
+				layout = new Layout<E, K>(rebuilt, newBounds);
+				rebalances++;
+			}
+			finally {
+				for(Shard<E, K> shard : old.shards) {
+					shard.lock.writeLock().unlock();
+				}
+			}
+		}
+	}
+
+	/**
+	 * Builds a balanced tree from a sorted run of nodes, with the middle
+	 * node of every range at the top of its subtree. This needs no
+	 * rotations, and unlike inserting the nodes one by one it cannot
+	 * leave the tree unbalanced.
+	 *
+	 * @param dict the dictionary the tree is for, which makes the nodes.
+	 * @param run the nodes in sorted order.
+	 * @param low the index of the first node to use.
+	 * @param high the index of the last node to use.
+	 * @return the root of the new tree, or null if the range is empty.
+	 */
+	AVLNode<E, K> build(AVLDictionary<E, K> dict, ArrayList<BSTNode<E, K>> run, int low, int high) {
+		if(low > high) {
+			return null;
+		}
+		int middle = (low + high) >>> 1;
+		//the right side has as many nodes as the left, or one more, so it
+		//is at most one level deeper.
+		int leftHeight = 32 - Integer.numberOfLeadingZeros(middle - low);
+		int rightHeight = 32 - Integer.numberOfLeadingZeros(high - middle);
+		return dict.newNode(run.get(middle).getKey(), run.get(middle).getElement(),
+				build(dict, run, low, middle - 1), build(dict, run, middle + 1, high),
+				(rightHeight > leftHeight) ? AVLNode.MORE_RIGHT : AVLNode.EVEN);
+	}
+
+	/**
+	 * Returns the element with the given key, or null if not found.
+	 */
+	public E search(K key) {
+		if(key == null) {
+			return null; //looking for nothing
+		}
+		Shard<E, K> shard = lockShard(key, false);
+		try {
+			return shard.dict.search(key);
+		}
+		finally {
+			shard.lock.readLock().unlock();
+		}
+	}
+
+	/**
+	 * Hands every entry to the visitor in sorted order. Writers are
+	 * blocked until the traversal is done, so the visitor must not
+	 * change this dictionary.
+	 * @param visitor the visitor to give the entries to.
+	 */
+	public void traverse(DictionaryVisitor<E, K> visitor) throws IOException {
+		Layout<E, K> current = lockAll();
+		try {
+			for(Shard<E, K> shard : current.shards) {
+				shard.dict.traverse(visitor);
+			}
+		}
+		finally {
+			unlockAll(current);
+		}
+	}
+
+	/**
+	 * Releases the read locks taken by lockAll.
+	 * @param current the layout whose shards are locked.
+	 */
+	void unlockAll(Layout<E, K> current) {
+		for(Shard<E, K> shard : current.shards) {
+			shard.lock.readLock().unlock();
+		}
+	}
+
+	/**
+	 * One AVL tree with its own lock and entry count.
+	 */
+	static class Shard<E, K extends Sortable> {
+		AVLDictionary<E, K> dict = new AVLDictionary<E, K>();
+
+		ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+		volatile int size = 0; // only changed while holding the write lock.
+
+		// set, under the write lock, once a rebalance has replaced this shard.
+		boolean retired = false;
+	}
+
+	/**
+	 * The shards and the bounds between them. A layout is never changed,
+	 * a rebalance makes a new one.
+	 */
+	static class Layout<E, K extends Sortable> {
+		final Shard<E, K>[] shards;
+
+		final ArrayList<K> bounds; // the lowest key of every shard but the first.
+
+		Layout(Shard<E, K>[] shards, ArrayList<K> bounds) {
+			this.shards = shards;
+			this.bounds = bounds;
+		}
+
+		/**
+		 * Returns whether a shard of the given size is skewed.
+		 * @param shardSize the number of entries in the shard.
+		 * @return true if the shards should be rebalanced.
+		 */
+		boolean isSkewed(int shardSize) {
+			return isSkewed(shardSize, total());
+		}
+
+		/**
+		 * Returns whether a shard has grown too large compared to the others.
+		 * It is compared with the average of the other shards, since compared
+		 * with the average of all of them two shards could never be skewed.
+		 *
+		 * @param shardSize the number of entries in the shard.
+		 * @param total the number of entries in all the shards.
+		 * @return true if the shards should be rebalanced.
+		 */
+		boolean isSkewed(int shardSize, int total) {
+			return (shards.length > 1) && (shardSize >= MIN_REBALANCE_SIZE)
+					&& ((long) shardSize * (shards.length - 1) > (long) SKEW * (total - shardSize));
+		}
+
+		/**
+		 * Finds the shard which owns a key by binary searching the bounds.
+		 * @param key the key to look for.
+		 * @return the shard.
+		 */
+		Shard<E, K> route(K key) {
+			int low = 0;
+			int high = bounds.size();
+			//find the first bound greater than the key.
+			while(low < high) {
+				int middle = (low + high) >>> 1;
+				if(key.compareTo(bounds.get(middle)) < 0) {
+					high = middle;
+				}
+				else {
+					low = middle + 1;
+				}
+			}
+			return shards[low];
+		}
+
+		/**
+		 * Adds up the sizes of the shards, which may be changing.
+		 * @return the number of entries in all the shards.
+		 */
+		int total() {
+			int total = 0;
+			for(Shard<E, K> shard : shards) {
+				total += shard.size;
+			}
+			return total;
+		}
+	}
+}
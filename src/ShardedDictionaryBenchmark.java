@@ -0,0 +1,74 @@
+import java.util.Random;
+
+// The "ShardedDictionaryBenchmark" class.
+// This class measures how ShardedDictionary throughput grows with the
+// number of shards. For each shard count it fills a dictionary with
+// random keys, then has every thread run searches (80%), inserts (10%)
+// and deletes (10%) on random keys, and prints the operations per
+// second and the speedup over a single shard. With one shard every
+// thread shares one lock; with more, threads mostly lock different
+// shards, so the speedup should approach the number of threads on a
+// machine with that many cores.
+// Arguments: threads (default: the number of processors), operations
+// per thread (default 1000000), keys (default 1000000).
+public class ShardedDictionaryBenchmark {
+	protected static SortableString[] keys;
+
+	protected static long run(int shards, final int threads, final int ops)
+			throws InterruptedException {
+		final ShardedDictionary<String, SortableString> dict = new ShardedDictionary<String, SortableString>(
+				shards);
+		// random keys, so the shards start out balanced
+		Random fill = new Random(3);
+		for (int i = 0; i < keys.length / 2; i++) {
+			SortableString key = keys[fill.nextInt(keys.length)];
+			dict.insert(key, key.toString());
+		}
+
+		Thread[] workers = new Thread[threads];
+		for (int t = 0; t < threads; t++) {
+			final Random random = new Random(t);
+			workers[t] = new Thread() {
+				public void run() {
+					for (int i = 0; i < ops; i++) {
+						SortableString key = keys[random.nextInt(keys.length)];
+						int op = random.nextInt(10);
+						if (op < 8)
+							dict.search(key);
+						else if (op == 8)
+							dict.insert(key, key.toString());
+						else
+							dict.delete(key);
+					}
+				}
+			};
+		}
+		long start = System.nanoTime();
+		for (Thread worker : workers)
+			worker.start();
+		for (Thread worker : workers)
+			worker.join();
+		return System.nanoTime() - start;
+	} // run method
+
+	public static void main(String[] args) throws Exception {
+		int threads = (args.length > 0) ? Integer.parseInt(args[0]) : Runtime
+				.getRuntime().availableProcessors();
+		int ops = (args.length > 1) ? Integer.parseInt(args[1]) : 1000000;
+		int size = (args.length > 2) ? Integer.parseInt(args[2]) : 1000000;
+		keys = new SortableString[size];
+		for (int i = 0; i < size; i++)
+			keys[i] = new SortableString(Integer.toString(i, 36));
+
+		run(threads, threads, ops / 10); // warm up
+		System.out.println(threads + " threads, " + ops + " operations each");
+		double single = 0;
+		for (int shards = 1; shards <= Math.max(threads * 4, 1); shards *= 2) {
+			double rate = (double) threads * ops / (run(shards, threads, ops) / 1e9);
+			if (shards == 1)
+				single = rate;
+			System.out.println(shards + " shards: " + (long) rate + " ops/s, "
+					+ String.format("%.2f", rate / single) + "x one shard");
+		}
+	} // main method
+} /* ShardedDictionaryBenchmark class */
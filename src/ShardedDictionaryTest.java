@@ -0,0 +1,86 @@
+import java.util.Arrays;
+
+// The "ShardedDictionaryTest" class.
+// This class inserts ascending keys into ShardedDictionaries, which at
+// first all land in the last shard, and checks that the shards are
+// rebalanced to similar sizes and that every key can still be found,
+// deleted and traversed in order. It also checks that a rebalance
+// into a number of shards which does not divide the entries evenly
+// leaves no shard empty.
+// The number of keys can be given as the first argument.
+public class ShardedDictionaryTest {
+	protected static SortableString key(int i) {
+		// zero-padded so that string order is number order
+		String s = Integer.toString(i);
+		return new SortableString("0000000000".substring(s.length()) + s);
+	} // key method
+
+	public static void main(String[] args) throws Exception {
+		int size = (args.length > 0) ? Integer.parseInt(args[0]) : 20000;
+		for (int count : new int[] { 2, 8 }) {
+			ShardedDictionary<Integer, SortableString> dict = new ShardedDictionary<Integer, SortableString>(
+					count);
+			for (int i = 0; i < size; i++)
+				dict.insert(key(i), i);
+			int[] sizes = dict.getShardSizes();
+			System.out.println(count + " shards after " + size
+					+ " ascending keys: " + Arrays.toString(sizes) + ", "
+					+ dict.getRebalances() + " rebalances, depth " + dict.depth());
+
+			int wrong = 0;
+			int smallest = Integer.MAX_VALUE, largest = 0;
+			for (int shard : sizes) {
+				smallest = Math.min(smallest, shard);
+				largest = Math.max(largest, shard);
+			}
+			// the last shard may reach SKEW times the others before
+			// rebalancing, and skew is only checked every so often
+			if (largest > ShardedDictionary.SKEW * smallest
+					+ ShardedDictionary.MIN_REBALANCE_SIZE) {
+				System.out.println("Shards are not balanced");
+				wrong++;
+			}
+			for (int i = 0; i < size; i++)
+				if (dict.search(key(i)) == null || dict.search(key(i)) != i)
+					wrong++;
+			for (int i = 0; i < size; i += 2)
+				dict.delete(key(i));
+			final int[] next = { 1 };
+			final int[] out = { 0 };
+			dict.traverse(new DictionaryVisitor<Integer, SortableString>() {
+				public void visit(SortableString key, Integer element) {
+					if (element != next[0])
+						out[0]++;
+					next[0] += 2;
+				}
+			});
+			if (out[0] > 0 || next[0] != size + 1 - (size % 2)) {
+				System.out.println("Traversal out of order or incomplete");
+				wrong++;
+			}
+			System.out.println(wrong + " wrong");
+		}
+
+		// the first rebalance of 12 shards splits MIN_REBALANCE_SIZE entries:
+		// 5 or 6 each, where 6 each would leave the last shard empty
+		ShardedDictionary<Integer, SortableString> dict = new ShardedDictionary<Integer, SortableString>(
+				12);
+		for (int i = 0; i < ShardedDictionary.MIN_REBALANCE_SIZE; i++)
+			dict.insert(key(i), i);
+		int[] sizes = dict.getShardSizes();
+		int smallest = Integer.MAX_VALUE, largest = 0;
+		for (int shard : sizes) {
+			smallest = Math.min(smallest, shard);
+			largest = Math.max(largest, shard);
+		}
+		System.out.println("12 shards after one rebalance: "
+				+ Arrays.toString(sizes));
+		int wrong = 0;
+		if (dict.getRebalances() != 1 || smallest == 0 || largest - smallest > 1)
+			wrong++;
+		for (int i = 0; i < ShardedDictionary.MIN_REBALANCE_SIZE; i++)
+			if (dict.search(key(i)) == null || dict.search(key(i)) != i)
+				wrong++;
+		System.out.println(wrong + " wrong");
+	} // main method
+} /* ShardedDictionaryTest class */
@@ -1,6 +1,11 @@
+import java.io.Serializable;
+
 // The "SortableString" class.
 // A "String-holding" class which implements the Sortable interface.
-class SortableString implements Sortable {
+// It is Serializable so that it can be sent to a Follower over a socket.
+class SortableString implements Sortable, Serializable {
+	private static final long serialVersionUID = 1L;
+
 	protected String s;
 
 	public SortableString(String x) {
@@ -11,6 +16,17 @@ class SortableString implements Sortable {
 		return s.compareTo(((SortableString) other).s);
 	} // compareTo method
 
+	// Equal exactly when compareTo returns 0, so that hashCode can be
+	// used by hash-based structures such as CountingBloomFilter.
+	public boolean equals(Object other) {
+		return (other instanceof SortableString)
+				&& s.equals(((SortableString) other).s);
+	} // equals method
+
+	public int hashCode() {
+		return s.hashCode();
+	} // hashCode method
+
 	public String toString() {
 		return s;
 	} // toString method
@@ -0,0 +1,70 @@
+import java.io.IOException;
+
+/**
+ * This class lets a dictionary which is not thread-safe be used from
+ * many threads, by running every operation while holding the wrapper's
+ * monitor. Searches wait for each other too, so this is also safe for
+ * dictionaries which change their own state when searched.
+ *
+ * Use AsyncDictionary instead to let searches run alongside each other,
+ * or to run operations on an executor.
+ *
+ * @author Ryan Seys
+ */
+public class SynchronizedDictionary<E, K extends Sortable> implements Dictionary<E, K> {
+	protected final Dictionary<E, K> dict;
+
+	/**
+	 * Constructor for the synchronized dictionary.
+	 * @param dict the dictionary to protect, which must not be used directly.
+	 */
+	public SynchronizedDictionary(Dictionary<E, K> dict) {
+		this.dict = dict;
+	}
+
+	/**
+	 * Delete an entry with key passed as the parameter.
+	 * @param key The key we wish to delete from this dictionary.
+	 */
+	public synchronized void delete(K key) {
+		dict.delete(key);
+	}
+
+	/**
+	 * Returns the depth of the underlying tree.
+	 * @return the depth of the tree in integer form.
+	 */
+	public synchronized int depth() {
+		return dict.depth();
+	}
+
+	/**
+	 * Insert a key-value pair into the dictionary.
+	 */
+	public synchronized void insert(K key, E element) {
+		dict.insert(key, element);
+	}
+
+	/**
+	 * Print the Dictionary in sorted order (as determined by the keys).
+	 */
+	public synchronized void printTree() {
+		dict.printTree();
+	}
+
+	/**
+	 * Returns the element with the given key, or null if not found.
+	 */
+	public synchronized E search(K key) {
+		return dict.search(key);
+	}
+
+	/**
+	 * Hands every entry to the visitor in sorted order, with no other
+	 * operation running in the meantime.
+	 * @param visitor the visitor to give the entries to.
+	 */
+	public synchronized void traverse(DictionaryVisitor<E, K> visitor) throws IOException {
+		dict.traverse(visitor);
+	}
+}
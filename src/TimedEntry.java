@@ -0,0 +1,44 @@
+// The "TimedEntry" class.
+// An element stored by an ExpiringDictionary, together with its key,
+// the time (in milliseconds) after which it has expired, and its links
+// in the TimingWheel slot it is waiting in.
+public class TimedEntry<E, K extends Sortable> {
+	protected final K key;
+
+	protected final E element;
+
+	protected final long deadline; // Long.MAX_VALUE if it never expires.
+
+	// Where the entry is in the TimingWheel, level is -1 when it is not.
+	protected int level = -1;
+
+	protected int slot;
+
+	protected TimedEntry<E, K> previous, next;
+
+	public TimedEntry(K key, E element, long deadline) {
+		this.key = key;
+		this.element = element;
+		this.deadline = deadline;
+	} // TimedEntry constructor
+
+	public K getKey() {
+		return key;
+	} // getKey method
+
+	public E getElement() {
+		return element;
+	} // getElement method
+
+	public long getDeadline() {
+		return deadline;
+	} // getDeadline method
+
+	public boolean isExpired(long now) {
+		return now >= deadline;
+	} // isExpired method
+
+	public String toString() {
+		return element.toString();
+	} // toString method
+} /* TimedEntry class */
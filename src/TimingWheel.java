@@ -0,0 +1,142 @@
+import java.util.List;
+
+// The "TimingWheel" class.
+// A hierarchical timing wheel: LEVELS wheels of SLOTS slots each, where
+// a slot on level 0 covers one tick and a slot on level L covers
+// SLOTS^L ticks. An entry is put on the lowest level whose range
+// reaches its deadline, and moves down a level each time the wheel
+// below it comes round, so scheduling, cancelling and expiring an
+// entry are all O(1) amortized. Advancing jumps straight to the next
+// slot which has entries in it, so a long idle gap costs no more than
+// a short one.
+public class TimingWheel<E, K extends Sortable> {
+	public static final int SHIFT = 6;
+
+	public static final int SLOTS = 1 << SHIFT;
+
+	public static final int LEVELS = 4;
+
+	protected final long tickMillis;
+
+	protected final TimedEntry<E, K>[][] heads; // the list in each slot.
+
+	protected long currentTick;
+
+	protected int count = 0; // the number of entries waiting.
+
+	@SuppressWarnings("unchecked")
+	public TimingWheel(long tickMillis, long now) {
+		this.tickMillis = tickMillis;
+		this.heads = (TimedEntry<E, K>[][]) new TimedEntry<?, ?>[LEVELS][SLOTS];
+		this.currentTick = now / tickMillis;
+	} // TimingWheel constructor
+
+	// Waits for the entry's deadline, unless it never expires
+	public void schedule(TimedEntry<E, K> entry) {
+		if (entry.deadline == Long.MAX_VALUE)
+			return;
+		long tick = (entry.deadline + tickMillis - 1) / tickMillis;
+		// the current slot has already been handled
+		tick = Math.max(tick, currentTick + 1);
+		// past the top level, wait as long as possible and move down then
+		tick = Math.min(tick, currentTick + (1L << (SHIFT * LEVELS)) - 1);
+		int level = 0;
+		while ((tick - currentTick) >> (SHIFT * (level + 1)) != 0)
+			level++;
+		int slot = (int) (tick >> (SHIFT * level)) & (SLOTS - 1);
+		entry.level = level;
+		entry.slot = slot;
+		entry.previous = null;
+		entry.next = heads[level][slot];
+		if (entry.next != null)
+			entry.next.previous = entry;
+		heads[level][slot] = entry;
+		count++;
+	} // schedule method
+
+	// Stops waiting for the entry, if it is waiting
+	public void cancel(TimedEntry<E, K> entry) {
+		if (entry.level < 0)
+			return;
+		if (entry.previous != null)
+			entry.previous.next = entry.next;
+		else
+			heads[entry.level][entry.slot] = entry.next;
+		if (entry.next != null)
+			entry.next.previous = entry.previous;
+		entry.level = -1;
+		entry.previous = entry.next = null;
+		count--;
+	} // cancel method
+
+	// Takes every entry out of a slot, returning the first of them
+	protected TimedEntry<E, K> takeSlot(int level, int slot) {
+		TimedEntry<E, K> first = heads[level][slot];
+		heads[level][slot] = null;
+		for (TimedEntry<E, K> e = first; e != null; e = e.next) {
+			e.level = -1;
+			count--;
+		}
+		return first;
+	} // takeSlot method
+
+	// Moves the wheel forward to NOW, adding every entry which
+	// expired on the way to EXPIRED
+	public void advance(long now, List<TimedEntry<E, K>> expired) {
+		long tick = now / tickMillis;
+		while (currentTick < tick) {
+			long reached = nextTick();
+			if (reached > tick) {
+				currentTick = tick; // nothing happens on the way
+				break;
+			}
+			currentTick = reached;
+			// when a wheel comes round, move the next slot above it down
+			for (int level = LEVELS - 1; level > 0; level--) {
+				long mask = (1L << (SHIFT * level)) - 1;
+				if ((currentTick & mask) == 0) {
+					int slot = (int) (currentTick >> (SHIFT * level)) & (SLOTS - 1);
+					TimedEntry<E, K> e = takeSlot(level, slot);
+					while (e != null) {
+						TimedEntry<E, K> next = e.next;
+						schedule(e);
+						e = next;
+					}
+				}
+			}
+			TimedEntry<E, K> e = takeSlot(0, (int) currentTick & (SLOTS - 1));
+			while (e != null) {
+				TimedEntry<E, K> next = e.next;
+				e.previous = e.next = null;
+				if (e.isExpired(currentTick * tickMillis))
+					expired.add(e);
+				else
+					schedule(e);
+				e = next;
+			}
+		}
+	} // advance method
+
+	// Returns the first tick after the current one at which a slot with
+	// entries in it is reached: on level 0 every tick reaches a slot, on
+	// level L only the ticks which are multiples of SLOTS^L do. Returns
+	// Long.MAX_VALUE if the wheel is empty
+	protected long nextTick() {
+		long next = Long.MAX_VALUE;
+		for (int level = 0; level < LEVELS && count > 0; level++) {
+			int shift = SHIFT * level;
+			long current = currentTick >> shift; // this level's slot number
+			for (long slot = current + 1; slot <= current + SLOTS; slot++) {
+				if (heads[level][(int) slot & (SLOTS - 1)] != null) {
+					next = Math.min(next, slot << shift);
+					break;
+				}
+			}
+		}
+		return next;
+	} // nextTick method
+
+	public int size() {
+		return count;
+	} // size method
+} /* TimingWheel class */
@@ -0,0 +1,19 @@
+// The "TombstoneNode" class.
+// An AVLNode which can be marked as deleted (a tombstone) without being
+// taken out of the tree, as done by LazyDeleteDictionary.
+public class TombstoneNode<E, K extends Sortable> extends AVLNode<E, K> {
+	protected boolean deleted;
+
+	public TombstoneNode(K key, E element, AVLNode<E, K> left,
+			AVLNode<E, K> right, int balance) {
+		super(key, element, left, right, balance);
+	} // TombstoneNode constructor
+
+	public boolean isDeleted() {
+		return deleted;
+	} // isDeleted method
+
+	public void setDeleted(boolean deleted) {
+		this.deleted = deleted;
+	} // setDeleted method
+} /* TombstoneNode class */
@@ -0,0 +1,7 @@
+// The "ValueExtractor" interface.
+// This interface is used by the sum, min and max Monoids to find the
+// number in an element which is being added up, such as a price.
+public interface ValueExtractor<E> {
+	// return the value of an element
+	public abstract long valueOf(E element);
+} /* ValueExtractor interface */
@@ -0,0 +1,29 @@
+// The "VersionNode" class.
+// A BSTNode which also knows the height of its subtree. These nodes
+// are shared between versions of a VersionedDictionary, so they are
+// never changed once they are part of a committed tree.
+public class VersionNode<E, K extends Sortable> extends BSTNode<E, K> {
+	protected final int height; // 1 for a leaf.
+
+	public VersionNode(K key, E element, VersionNode<E, K> left,
+			VersionNode<E, K> right) {
+		super(key, element, left, right);
+		this.height = 1 + Math.max(height(left), height(right));
+	} // VersionNode constructor
+
+	public static int height(VersionNode<?, ?> node) {
+		return (node == null) ? 0 : node.height;
+	} // height method
+
+	public VersionNode<E, K> getLeft() {
+		return (VersionNode<E, K>) left;
+	} // getLeft method
+
+	public VersionNode<E, K> getRight() {
+		return (VersionNode<E, K>) right;
+	} // getRight method
+
+	public int getHeight() {
+		return height;
+	} // getHeight method
+} /* VersionNode class */
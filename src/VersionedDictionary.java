@@ -0,0 +1,424 @@
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.AbstractMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * This class represents a multi-version AVL tree dictionary.
+ * Nodes are never changed once committed: every insert or delete copies
+ * only the path from the root to the changed node and commits the new
+ * root as the next version. Readers open a ReadView on a version and can
+ * search and iterate it without any locking while writers keep going.
+ *
+ * Only the latest version and the versions held by open ReadViews are
+ * kept, however many were committed in between. Once no reader holds an
+ * old version it is dropped, and the nodes only it used are garbage
+ * collected.
+ *
+ * @author Ryan Seys
+ */
+public class VersionedDictionary<E, K extends Sortable> implements Dictionary<E, K> {
+	volatile VersionNode<E, K> root; // the root of the latest version.
+
+	volatile long version = 0; // the latest committed version.
+
+	// the latest root and the roots held by readers, by version.
+	TreeMap<Long, VersionNode<E, K>> versions = new TreeMap<Long, VersionNode<E, K>>();
+
+	// number of open ReadViews, by version.
+	TreeMap<Long, Integer> readers = new TreeMap<Long, Integer>();
+
+	// held by writers while copying a path, so that opening and closing
+	// ReadViews (which lock the dictionary itself) only waits for commits.
+	protected final Object writeLock = new Object();
+
+	/**
+	 * Constructor for the versioned AVL tree.
+	 */
+	public VersionedDictionary() {
+		versions.put(version, null);
+	}
+
+	/**
+	 * Builds a node from the given parts, doing a single or double
+	 * rotation if one side is more than one level deeper than the other.
+	 *
+	 * @return the new (balanced) subtree.
+	 */
+	VersionNode<E, K> balance(K key, E element, VersionNode<E, K> left, VersionNode<E, K> right) {
+		int leftHeight = VersionNode.height(left);
+		int rightHeight = VersionNode.height(right);
+		if(leftHeight > rightHeight + 1) {
+			if(VersionNode.height(left.getLeft()) >= VersionNode.height(left.getRight())) {
+				//left-left rotate
+				return new VersionNode<E, K>(left.getKey(), left.getElement(), left.getLeft(),
+						new VersionNode<E, K>(key, element, left.getRight(), right));
+			}
+			//left-right rotate
+			VersionNode<E, K> center = left.getRight();
+			return new VersionNode<E, K>(center.getKey(), center.getElement(),
+					new VersionNode<E, K>(left.getKey(), left.getElement(), left.getLeft(), center.getLeft()),
+					new VersionNode<E, K>(key, element, center.getRight(), right));
+		}
+		else if(rightHeight > leftHeight + 1) {
+			if(VersionNode.height(right.getRight()) >= VersionNode.height(right.getLeft())) {
+				//right-right rotate
+				return new VersionNode<E, K>(right.getKey(), right.getElement(),
+						new VersionNode<E, K>(key, element, left, right.getLeft()), right.getRight());
+			}
+			//right-left rotate
+			VersionNode<E, K> center = right.getLeft();
+			return new VersionNode<E, K>(center.getKey(), center.getElement(),
+					new VersionNode<E, K>(key, element, left, center.getLeft()),
+					new VersionNode<E, K>(right.getKey(), right.getElement(), center.getRight(), right.getRight()));
+		}
+		return new VersionNode<E, K>(key, element, left, right);
+	}
+
+	/**
+	 * Makes a new root the latest version and drops old versions
+	 * which no reader holds any longer.
+	 *
+	 * @param newRoot the root of the new version.
+	 */
+	synchronized void commit(VersionNode<E, K> newRoot) {
+		root = newRoot;
+		version++;
+		versions.put(version, newRoot);
+		prune();
+	}
+
+	/**
+	 * Delete an entry with key passed as the parameter.
+	 * Commits a new version if the key was found.
+	 * @param key The key we wish to delete from this tree.
+	 */
+	public void delete(K key) {
+		synchronized(writeLock) {
+			VersionNode<E, K> newRoot = deleteRecursive(root, key);
+			if(newRoot != root) {
+				commit(newRoot);
+			}
+		}
+	}
+
+	/**
+	 * Recursive solution to deleting the minimum node below a node.
+	 *
+	 * @param node the node to the right of the node we are deleting.
+	 * @return a copy of the node given, however without its minimum node.
+	 */
+	VersionNode<E, K> deleteMin(VersionNode<E, K> node) {
+		if(node.getLeft() == null) {
+			//at the bottom of the nodes.
+			return node.getRight();
+		}
+		return balance(node.getKey(), node.getElement(), deleteMin(node.getLeft()), node.getRight());
+	}
+
+	/**
+	 * Recursive solution to deleting a node. Copies every node on the
+	 * path to the deleted node, the rest is shared with the old version.
+	 *
+	 * @param node node under which we will look for the key node to be deleted
+	 * @param key the key to the node which is being deleted
+	 * @return a copy of the node given without the deleted node, or the
+	 *         node itself if the key was not found.
+	 */
+	VersionNode<E, K> deleteRecursive(VersionNode<E, K> node, K key) {
+		if(node == null) {
+			return null; //not found
+		}
+		int cmp = key.compareTo(node.getKey());
+		if(cmp < 0) {
+			VersionNode<E, K> left = deleteRecursive(node.getLeft(), key);
+			if(left == node.getLeft()) return node;
+			return balance(node.getKey(), node.getElement(), left, node.getRight());
+		}
+		else if(cmp > 0) {
+			VersionNode<E, K> right = deleteRecursive(node.getRight(), key);
+			if(right == node.getRight()) return node;
+			return balance(node.getKey(), node.getElement(), node.getLeft(), right);
+		}
+		//you are at the node you want to delete
+		if(node.getLeft() == null) return node.getRight();
+		if(node.getRight() == null) return node.getLeft();
+		//the replacement node is the least node which is still greater than the one deleted.
+		VersionNode<E, K> replacement = node.getRight();
+		while(replacement.getLeft() != null) {
+			replacement = replacement.getLeft();
+		}
+		return balance(replacement.getKey(), replacement.getElement(), node.getLeft(), deleteMin(node.getRight()));
+	}
+
+	/**
+	 * Returns the depth of the latest version of the tree.
+	 * @return the depth of the tree in integer form.
+	 */
+	public int depth() {
+		return VersionNode.height(root);
+	}
+
+	/**
+	 * Returns the latest committed version.
+	 * @return the version number, which starts at 0 for the empty tree.
+	 */
+	public long getVersion() {
+		return version;
+	}
+
+	/**
+	 * Returns how many versions are currently kept for readers.
+	 * @return the number of retained versions, including the latest.
+	 */
+	public synchronized int getRetainedVersions() {
+		return versions.size();
+	}
+
+	/**
+	 * Insert a key-value pair into the tree and commit a new version.
+	 * Duplicate keys are ignored.
+	 */
+	public void insert(K key, E element) {
+		synchronized(writeLock) {
+			VersionNode<E, K> newRoot = insertRecursive(root, key, element);
+			if(newRoot != root) {
+				commit(newRoot);
+			}
+		}
+	}
+
+	/**
+	 * Recursive solution to inserting a node. Copies every node on the
+	 * path to the new node, the rest is shared with the old version.
+	 *
+	 * @param node the node we wish to insert our new node underneath
+	 * @param key the key value of the new node to be inserted
+	 * @param element the element value of the node to be inserted
+	 * @return a copy of the node given with the new node, or the node
+	 *         itself if the key was already there.
+	 */
+	VersionNode<E, K> insertRecursive(VersionNode<E, K> node, K key, E element) {
+		if(node == null) {
+			return new VersionNode<E, K>(key, element, null, null);
+		}
+		int cmp = key.compareTo(node.getKey());
+		if(cmp < 0) {
+			VersionNode<E, K> left = insertRecursive(node.getLeft(), key, element);
+			if(left == node.getLeft()) return node;
+			return balance(node.getKey(), node.getElement(), left, node.getRight());
+		}
+		else if(cmp > 0) {
+			VersionNode<E, K> right = insertRecursive(node.getRight(), key, element);
+			if(right == node.getRight()) return node;
+			return balance(node.getKey(), node.getElement(), node.getLeft(), right);
+		}
+		return node; //cannot have duplicates
+	}
+
+	/**
+	 * Opens a read view on the latest version.
+	 * @return the read view, which must be closed when done.
+	 */
+	public synchronized ReadView openReadView() {
+		return openReadView(version);
+	}
+
+	/**
+	 * Opens a read view on a committed version.
+	 *
+	 * @param at the version to read.
+	 * @return the read view, which must be closed when done.
+	 * @throws IllegalArgumentException if the version was never committed
+	 *         or has already been dropped.
+	 */
+	public synchronized ReadView openReadView(long at) {
+		if(!versions.containsKey(at)) {
+			throw new IllegalArgumentException("Version " + at + " is not retained.");
+		}
+		Integer count = readers.get(at);
+		readers.put(at, (count == null) ? 1 : count + 1);
+		return new ReadView(at, versions.get(at));
+	}
+
+	/**
+	 * Print the latest version in sorted order (as determined by the keys).
+	 */
+	public void printTree() {
+		System.out.println("\nPrinting the Versioned AVL Tree below...");
+		ExportSink.print(this);
+	}
+
+	/**
+	 * Drops every version which is neither the latest one nor held by
+	 * an open reader. Only those are ever kept, so this looks at no more
+	 * than the open readers' versions and the one just replaced.
+	 */
+	synchronized void prune() {
+		Iterator<Long> kept = versions.keySet().iterator();
+		while(kept.hasNext()) {
+			long at = kept.next();
+			if((at != version) && !readers.containsKey(at)) {
+				kept.remove();
+			}
+		}
+	}
+
+	/**
+	 * Returns the element with the given key in the latest version.
+	 */
+	public E search(K key) {
+		return searchIn(root, key);
+	}
+
+	/**
+	 * Finds an element below a node without changing anything.
+	 *
+	 * @param node the root of the version to search.
+	 * @param key the key value of the node we are looking for.
+	 * @return the element, or null if not found.
+	 */
+	E searchIn(VersionNode<E, K> node, K key) {
+		if(key == null) {
+			return null; //looking for nothing
+		}
+		while(node != null) {
+			int cmp = key.compareTo(node.getKey());
+			if(cmp == 0) {
+				return node.getElement();
+			}
+			node = (cmp < 0) ? node.getLeft() : node.getRight();
+		}
+		return null;
+	}
+
+	/**
+	 * Hands every entry of the latest version to the visitor in sorted
+	 * order. Writers may commit while this runs, they are not seen.
+	 * @param visitor the visitor to give the entries to.
+	 */
+	public void traverse(DictionaryVisitor<E, K> visitor) throws IOException {
+		traverseFrom(root, visitor);
+	}
+
+	/**
+	 * Hands every entry below a node to the visitor in sorted order.
+	 *
+	 * @param node the root of the version to traverse.
+	 * @param visitor the visitor to give the entries to.
+	 */
+	void traverseFrom(VersionNode<E, K> node, DictionaryVisitor<E, K> visitor) throws IOException {
+		InorderIterator<E, K> nodes = new InorderIterator<E, K>(node);
+		while(nodes.hasNext()) {
+			BSTNode<E, K> next = nodes.next();
+			visitor.visit(next.getKey(), next.getElement());
+		}
+	}
+
+	/**
+	 * A read-only view of one committed version. Reading it never blocks
+	 * writers and is never affected by them. Its nodes are shared with
+	 * other versions, so it only ever hands out keys and elements.
+	 */
+	public class ReadView implements Closeable, Iterable<Map.Entry<K, E>> {
+		protected final long at; // the version being read.
+
+		protected final VersionNode<E, K> viewRoot;
+
+		protected boolean closed = false;
+
+		ReadView(long at, VersionNode<E, K> viewRoot) {
+			this.at = at;
+			this.viewRoot = viewRoot;
+		}
+
+		/**
+		 * Releases this view so its version can be dropped.
+		 * Closing a view more than once does nothing.
+		 */
+		public void close() {
+			synchronized(VersionedDictionary.this) {
+				if(closed) return;
+				closed = true;
+				int count = readers.get(at) - 1;
+				if(count == 0) {
+					readers.remove(at);
+				}
+				else {
+					readers.put(at, count);
+				}
+				prune();
+			}
+		}
+
+		/**
+		 * Returns the depth of the tree in this version.
+		 * @return the depth of the tree in integer form.
+		 */
+		public int depth() {
+			return VersionNode.height(viewRoot);
+		}
+
+		/**
+		 * Returns the version this view reads.
+		 * @return the version number.
+		 */
+		public long getVersion() {
+			return at;
+		}
+
+		/**
+		 * Iterates the entries of this version in sorted order, as
+		 * unmodifiable key-element pairs.
+		 */
+		public Iterator<Map.Entry<K, E>> iterator() {
+			final InorderIterator<E, K> nodes = new InorderIterator<E, K>(viewRoot);
+			return new Iterator<Map.Entry<K, E>>() {
+				public boolean hasNext() {
+					return nodes.hasNext();
+				}
+
+				public Map.Entry<K, E> next() {
+					BSTNode<E, K> node = nodes.next();
+					return new AbstractMap.SimpleImmutableEntry<K, E>(node.getKey(), node.getElement());
+				}
+
+				public void remove() {
+					throw new UnsupportedOperationException();
+				}
+			};
+		}
+
+		/**
+		 * Print this version in sorted order (as determined by the keys).
+		 */
+		public void printTree() {
+			System.out.println("\nPrinting version " + at + " of the Versioned AVL Tree below...");
+			ExportSink<E, K> sink = new ExportSink<E, K>((Appendable) System.out, EntryEncoder.TEXT);
+			try {
+				traverse(sink);
+				sink.flush();
+			}
+			catch(IOException e) {
+				throw new IllegalStateException(e); //PrintStream never throws
+			}
+		}
+
+		/**
+		 * Returns the element with the given key in this version.
+		 */
+		public E search(K key) {
+			return searchIn(viewRoot, key);
+		}
+
+		/**
+		 * Hands every entry of this version to the visitor in sorted order.
+		 * @param visitor the visitor to give the entries to.
+		 */
+		public void traverse(DictionaryVisitor<E, K> visitor) throws IOException {
+			traverseFrom(viewRoot, visitor);
+		}
+	}
+}
@@ -0,0 +1,74 @@
+import java.util.Map;
+
+// The "VersionedDictionaryTest" class.
+// This class keeps a ReadView open on an early version of a
+// VersionedDictionary while many more versions are committed, and
+// checks that only the versions readers hold (and the latest one) are
+// retained, however many commits go by, and that each view still reads
+// exactly the entries of its own version.
+// The number of commits can be given as the first argument.
+public class VersionedDictionaryTest {
+	protected static SortableString key(int i) {
+		// zero-padded so that string order is number order
+		String s = Integer.toString(i);
+		return new SortableString("0000000000".substring(s.length()) + s);
+	} // key method
+
+	// Counts the mistakes in a view which should hold the keys below size
+	static int check(VersionedDictionary<Integer, SortableString>.ReadView view,
+			int size) {
+		int wrong = 0, next = 0;
+		for (Map.Entry<SortableString, Integer> entry : view)
+			if (entry.getValue() != next++)
+				wrong++;
+		if (next != size || view.search(key(size)) != null)
+			wrong++;
+		return wrong;
+	} // check method
+
+	public static void main(String[] args) {
+		int commits = (args.length > 0) ? Integer.parseInt(args[0]) : 20000;
+		VersionedDictionary<Integer, SortableString> dict = new VersionedDictionary<Integer, SortableString>();
+		int wrong = 0;
+		for (int i = 0; i < 100; i++)
+			dict.insert(key(i), i);
+		VersionedDictionary<Integer, SortableString>.ReadView early = dict
+				.openReadView();
+		int most = 0;
+		VersionedDictionary<Integer, SortableString>.ReadView middle = null;
+		for (int i = 100; i < 100 + commits; i++) {
+			dict.insert(key(i), i);
+			if (i == 100 + commits / 2)
+				middle = dict.openReadView(); // holds keys 0 to i
+			most = Math.max(most, dict.getRetainedVersions());
+		}
+		// the early view, the middle one and the latest version
+		System.out.println(commits + " commits with readers open: at most "
+				+ most + " versions retained");
+		if (most > 3)
+			wrong++;
+		wrong += check(early, 100);
+		wrong += check(middle, 101 + commits / 2);
+
+		early.close();
+		if (dict.getRetainedVersions() != 2)
+			wrong++;
+		middle.close();
+		middle.close(); // closing twice does nothing
+		if (dict.getRetainedVersions() != 1)
+			wrong++;
+		try {
+			dict.openReadView(middle.getVersion());
+			wrong++; // it should have been dropped
+		} catch (IllegalArgumentException e) {
+			// expected
+		}
+		VersionedDictionary<Integer, SortableString>.ReadView latest = dict
+				.openReadView();
+		wrong += check(latest, 100 + commits);
+		latest.close();
+		System.out.println("After closing them: " + dict.getRetainedVersions()
+				+ " version retained");
+		System.out.println(wrong + " wrong");
+	} // main method
+} /* VersionedDictionaryTest class */
@@ -0,0 +1,239 @@
+/**
+ * This class represents a weak AVL (WAVL) tree dictionary.
+ * Every node has a rank, and the rank difference between a node and
+ * each of its children must be 1 or 2 (leaves have rank 0).
+ * With inserts only it is shaped exactly like an AVL tree, but deletes
+ * only do a constant number of rotations, like the red-black tree.
+ * It shares searching, printing and depth counting with BSTDictionary.
+ *
+ * @author Ryan Seys
+ */
+public class WAVLDictionary<E, K extends Sortable> extends BSTDictionary<E, K> {
+	protected long rotations = 0; // the number of rotations done so far.
+
+	/**
+	 * Constructor for the WAVL tree.
+	 */
+	public WAVLDictionary() {
+		super(null);
+	}
+
+	/**
+	 * Delete an entry with key passed as the parameter.
+	 * If the node has two children, its successor's entry is moved into it
+	 * and the successor (which has at most one child) is removed instead.
+	 * @param key The key we wish to delete from this tree.
+	 */
+	public void delete(K key) {
+		WAVLNode<E, K> node = (WAVLNode<E, K>) searchNode(key);
+		if(node == null) {
+			return; //nothing to delete
+		}
+		if((node.getLeft() != null) && (node.getRight() != null)) {
+			WAVLNode<E, K> successor = (WAVLNode<E, K>) findMin(node.getRight());
+			node.setKey(successor.getKey());
+			node.setElement(successor.getElement());
+			node = successor;
+		}
+		//the node now has at most one child, which takes its place.
+		WAVLNode<E, K> child = (node.getLeft() != null) ? node.getLeft() : node.getRight();
+		WAVLNode<E, K> parent = node.getParent();
+		replace(node, child);
+		if(parent == null) {
+			return; //the root was removed, nothing above it to fix.
+		}
+		//a leaf with rank 1 would now have two rank differences of 2.
+		if((parent.getLeft() == null) && (parent.getRight() == null) && (parent.getRank() == 1)) {
+			parent.setRank(0);
+			child = parent;
+			parent = parent.getParent();
+		}
+		deleteFixup(child, parent);
+	}
+
+	/**
+	 * Restores the rank rule after a removal left the node passed in
+	 * with a rank difference of 3 below its parent.
+	 *
+	 * @param node the node which may be too far below its parent (may be null).
+	 * @param parent the parent of that node.
+	 */
+	void deleteFixup(WAVLNode<E, K> node, WAVLNode<E, K> parent) {
+		while((parent != null) && (parent.getRank() - rank(node) == 3)) {
+			boolean isLeft = (node == parent.getLeft());
+			WAVLNode<E, K> sibling = isLeft ? parent.getRight() : parent.getLeft();
+			if(parent.getRank() - rank(sibling) == 2) {
+				//demote the parent and continue further up.
+				parent.setRank(parent.getRank() - 1);
+			}
+			else if((sibling.getRank() - rank(sibling.getLeft()) == 2)
+					&& (sibling.getRank() - rank(sibling.getRight()) == 2)) {
+				//the sibling can be demoted along with the parent.
+				parent.setRank(parent.getRank() - 1);
+				sibling.setRank(sibling.getRank() - 1);
+			}
+			else {
+				WAVLNode<E, K> outer = isLeft ? sibling.getRight() : sibling.getLeft();
+				WAVLNode<E, K> inner = isLeft ? sibling.getLeft() : sibling.getRight();
+				if(sibling.getRank() - rank(outer) == 1) {
+					//single rotate
+					rotateUp(sibling);
+					sibling.setRank(sibling.getRank() + 1);
+					parent.setRank(parent.getRank() - 1);
+					if((parent.getLeft() == null) && (parent.getRight() == null)) {
+						parent.setRank(parent.getRank() - 1); //leaves have rank 0
+					}
+				}
+				else {
+					//double rotate
+					rotateUp(inner);
+					rotateUp(inner);
+					inner.setRank(inner.getRank() + 2);
+					sibling.setRank(sibling.getRank() - 1);
+					parent.setRank(parent.getRank() - 2);
+				}
+				return; //done
+			}
+			node = parent;
+			parent = node.getParent();
+		}
+	}
+
+	/**
+	 * Returns the number of rotations done by inserts and deletes so far.
+	 * @return the rotation count.
+	 */
+	public long getRotations() {
+		return rotations;
+	}
+
+	/**
+	 * Insert a key-value pair into the WAVL tree.
+	 * Duplicate keys are ignored, as in BSTDictionary.
+	 */
+	public void insert(K key, E element) {
+		WAVLNode<E, K> parent = null;
+		WAVLNode<E, K> node = (WAVLNode<E, K>) root;
+		int cmp = 0;
+		//walk down to where the key belongs.
+		while(node != null) {
+			cmp = key.compareTo(node.getKey());
+			if(cmp == 0) {
+				return; //cannot have duplicates
+			}
+			parent = node;
+			node = (cmp < 0) ? node.getLeft() : node.getRight();
+		}
+		WAVLNode<E, K> added = new WAVLNode<E, K>(key, element, parent);
+		if(parent == null) {
+			root = added;
+		}
+		else if(cmp < 0) {
+			parent.setLeft(added);
+		}
+		else {
+			parent.setRight(added);
+		}
+		insertFixup(added);
+	}
+
+	/**
+	 * Restores the rank rule after a node got the same rank as its parent.
+	 * @param node the newly added (or promoted) node.
+	 */
+	void insertFixup(WAVLNode<E, K> node) {
+		WAVLNode<E, K> parent = node.getParent();
+		while((parent != null) && (parent.getRank() == node.getRank())) {
+			boolean isLeft = (node == parent.getLeft());
+			WAVLNode<E, K> sibling = isLeft ? parent.getRight() : parent.getLeft();
+			if(parent.getRank() - rank(sibling) == 1) {
+				//promote the parent and continue further up.
+				parent.setRank(parent.getRank() + 1);
+				node = parent;
+				parent = node.getParent();
+			}
+			else {
+				WAVLNode<E, K> inner = isLeft ? node.getRight() : node.getLeft();
+				if(node.getRank() - rank(inner) == 2) {
+					//single rotate
+					rotateUp(node);
+					parent.setRank(parent.getRank() - 1);
+				}
+				else {
+					//double rotate
+					rotateUp(inner);
+					rotateUp(inner);
+					inner.setRank(inner.getRank() + 1);
+					node.setRank(node.getRank() - 1);
+					parent.setRank(parent.getRank() - 1);
+				}
+				return; //done
+			}
+		}
+	}
+
+	/**
+	 * Print the Dictionary in sorted order (as determined by the keys)
+	 * to print in sorted order, we traverse and print the tree "inorder".
+	 */
+	public void printTree() {
+		System.out.println("\nPrinting the WAVL Tree below...");
+		ExportSink.print(this);
+	}
+
+	/**
+	 * Returns the rank of a node, missing nodes have rank -1.
+	 * @param node the node to check (may be null).
+	 * @return the rank of the node.
+	 */
+	int rank(WAVLNode<E, K> node) {
+		return (node == null) ? -1 : node.getRank();
+	}
+
+	/**
+	 * Puts a node in the place of another one under its parent.
+	 *
+	 * @param node the node being replaced.
+	 * @param replacement the node to take its place (may be null).
+	 */
+	void replace(WAVLNode<E, K> node, WAVLNode<E, K> replacement) {
+		WAVLNode<E, K> parent = node.getParent();
+		if(parent == null) {
+			root = replacement;
+		}
+		else if(node == parent.getLeft()) {
+			parent.setLeft(replacement);
+		}
+		else {
+			parent.setRight(replacement);
+		}
+		if(replacement != null) {
+			replacement.setParent(parent);
+		}
+	}
+
+	/**
+	 * Rotates a node up above its parent, the parent becomes its child.
+	 * @param node the node which we need to perform the rotate on.
+	 */
+	void rotateUp(WAVLNode<E, K> node) {
+		WAVLNode<E, K> parent = node.getParent();
+		replace(parent, node);
+		if(node == parent.getLeft()) {
+			parent.setLeft(node.getRight());
+			if(node.getRight() != null) {
+				node.getRight().setParent(parent);
+			}
+			node.setRight(parent);
+		}
+		else {
+			parent.setRight(node.getLeft());
+			if(node.getLeft() != null) {
+				node.getLeft().setParent(parent);
+			}
+			node.setLeft(parent);
+		}
+		parent.setParent(node);
+		rotations++;
+	}
+}
@@ -0,0 +1,38 @@
+// The "WAVLNode" class.
+// A BSTNode which also knows its rank and its parent, as needed
+// by the bottom-up rank fix-ups of the weak AVL tree.
+public class WAVLNode<E, K extends Sortable> extends BSTNode<E, K> {
+	protected WAVLNode<E, K> parent;
+
+	protected int rank; // 0 for a leaf, missing children count as -1.
+
+	public WAVLNode(K key, E element, WAVLNode<E, K> parent) {
+		super(key, element, null, null);
+		this.parent = parent;
+		this.rank = 0;
+	} // WAVLNode constructor
+
+	public WAVLNode<E, K> getLeft() {
+		return (WAVLNode<E, K>) left;
+	} // getLeft method
+
+	public WAVLNode<E, K> getRight() {
+		return (WAVLNode<E, K>) right;
+	} // getRight method
+
+	public WAVLNode<E, K> getParent() {
+		return parent;
+	} // getParent method
+
+	public int getRank() {
+		return rank;
+	} // getRank method
+
+	public void setParent(WAVLNode<E, K> node) {
+		parent = node;
+	} // setParent method
+
+	public void setRank(int rank) {
+		this.rank = rank;
+	} // setRank method
+} /* WAVLNode class */
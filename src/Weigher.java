@@ -0,0 +1,7 @@
+// The "Weigher" interface.
+// This interface is used by BoundedDictionary to find out how much of
+// its capacity an entry uses, such as its size in bytes.
+public interface Weigher<E, K extends Sortable> {
+	// return the weight of an entry, which must not be negative
+	public abstract long weigh(K key, E element);
+} /* Weigher interface */
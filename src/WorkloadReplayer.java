@@ -0,0 +1,208 @@
+import java.io.FileOutputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.locks.LockSupport;
+
+// The "WorkloadReplayer" class.
+// This class plays a trace made by RecordingDictionary back against a
+// dictionary engine, either as fast as possible or keeping the gaps
+// between operations that were recorded, on one or more threads. With
+// more than one thread the operations are split by key, so those on
+// the same key still run in their recorded order. It reports the
+// throughput, a latency histogram for each kind of operation, and the
+// shape of the tree left at the end.
+// Inserts use the key as the element, since elements are not recorded.
+//
+// Arguments: trace file, engine (bst, avl, rb, wavl or sharded; default
+// avl), threads (default 1), speed (max or original; default max).
+// Engines which are not thread-safe are wrapped in a
+// SynchronizedDictionary when there is more than one thread.
+// "-sample file operations" records a sample trace to try it with.
+public class WorkloadReplayer {
+	protected static final String[] OPS = { "", "search", "insert", "delete" };
+
+	protected final WorkloadTrace trace;
+
+	protected final SortableString[] keys; // made before the clock starts.
+
+	protected LatencyHistogram[] histograms; // by operation, from the last replay.
+
+	protected long nanos; // how long the last replay took.
+
+	protected long errors; // operations the engine threw an exception for.
+
+	public WorkloadReplayer(WorkloadTrace trace) {
+		this.trace = trace;
+		this.keys = new SortableString[trace.size()];
+		for (int i = 0; i < keys.length; i++)
+			keys[i] = new SortableString(trace.getKey(i));
+	} // WorkloadReplayer constructor
+
+	public static Dictionary<String, SortableString> create(String engine) {
+		if (engine.equals("bst"))
+			return new BSTDictionary<String, SortableString>();
+		if (engine.equals("avl"))
+			return new AVLDictionary<String, SortableString>();
+		if (engine.equals("rb"))
+			return new RedBlackDictionary<String, SortableString>();
+		if (engine.equals("wavl"))
+			return new WAVLDictionary<String, SortableString>();
+		if (engine.equals("sharded"))
+			return new ShardedDictionary<String, SortableString>(Runtime
+					.getRuntime().availableProcessors() * 4);
+		throw new IllegalArgumentException("unknown engine " + engine);
+	} // create method
+
+	// Replays the whole trace against dict, which must be thread-safe if
+	// there is more than one thread
+	public void replay(final Dictionary<String, SortableString> dict,
+			int threads, final boolean originalSpeed) throws InterruptedException {
+		// split the operations between the threads by key
+		final List<int[]> parts = new ArrayList<int[]>();
+		int[] sizes = new int[threads];
+		for (int i = 0; i < keys.length; i++)
+			sizes[owner(i, threads)]++;
+		for (int t = 0; t < threads; t++)
+			parts.add(new int[sizes[t]]);
+		int[] filled = new int[threads];
+		for (int i = 0; i < keys.length; i++) {
+			int t = owner(i, threads);
+			parts.get(t)[filled[t]++] = i;
+		}
+
+		final LatencyHistogram[][] local = new LatencyHistogram[threads][];
+		final long[] failed = new long[threads];
+		Thread[] workers = new Thread[threads];
+		final long start = System.nanoTime();
+		for (int t = 0; t < threads; t++) {
+			final int id = t;
+			local[t] = new LatencyHistogram[OPS.length];
+			for (int op = 1; op < OPS.length; op++)
+				local[t][op] = new LatencyHistogram();
+			workers[t] = new Thread("WorkloadReplayer " + t) {
+				public void run() {
+					for (int i : parts.get(id)) {
+						if (originalSpeed) {
+							long wait = start + trace.getTime(i) - System.nanoTime();
+							if (wait > 0)
+								LockSupport.parkNanos(wait);
+						}
+						byte op = trace.getOp(i);
+						long begin = System.nanoTime();
+						try {
+							if (op == WorkloadTrace.SEARCH)
+								dict.search(keys[i]);
+							else if (op == WorkloadTrace.INSERT)
+								dict.insert(keys[i], trace.getKey(i));
+							else
+								dict.delete(keys[i]);
+						} catch (RuntimeException e) {
+							failed[id]++;
+						}
+						local[id][op].record(System.nanoTime() - begin);
+					}
+				}
+			};
+		}
+		for (Thread worker : workers)
+			worker.start();
+		for (Thread worker : workers)
+			worker.join();
+		nanos = System.nanoTime() - start;
+
+		histograms = new LatencyHistogram[OPS.length];
+		errors = 0;
+		for (int op = 1; op < OPS.length; op++) {
+			histograms[op] = new LatencyHistogram();
+			for (int t = 0; t < threads; t++)
+				histograms[op].add(local[t][op]);
+		}
+		for (long count : failed)
+			errors += count;
+	} // replay method
+
+	protected int owner(int i, int threads) {
+		return (keys[i].hashCode() & Integer.MAX_VALUE) % threads;
+	} // owner method
+
+	public LatencyHistogram getHistogram(byte op) {
+		return histograms[op];
+	} // getHistogram method
+
+	public long getNanos() {
+		return nanos;
+	} // getNanos method
+
+	public long getErrors() {
+		return errors;
+	} // getErrors method
+
+	// Prints the results of the last replay and the shape of the tree
+	public void report(String name, Dictionary<String, SortableString> dict)
+			throws Exception {
+		double seconds = nanos / 1e9;
+		System.out.println(name + ": " + trace.size() + " ops in "
+				+ (long) (seconds * 1000) + " ms, " + (long) (trace.size() / seconds)
+				+ " ops/s, " + errors + " errors");
+		for (int op = 1; op < OPS.length; op++)
+			if (histograms[op].getCount() > 0)
+				histograms[op].print(OPS[op]);
+		final long[] size = new long[1];
+		dict.traverse(new DictionaryVisitor<String, SortableString>() {
+			public void visit(SortableString key, String element) {
+				size[0]++;
+			}
+		});
+		int smallest = 64 - Long.numberOfLeadingZeros(size[0]);
+		System.out.println("tree: " + size[0] + " entries, depth "
+				+ dict.depth() + " (smallest possible " + smallest + "), "
+				+ DictionaryBenchmark.rotations(dict) + " rotations");
+	} // report method
+
+	// Records a sample trace: skewed random keys, mostly searches
+	protected static void sample(String fileName, int ops) throws Exception {
+		RecordingDictionary<String, SortableString> dict = new RecordingDictionary<String, SortableString>(
+				new AVLDictionary<String, SortableString>(),
+				new FileOutputStream(fileName));
+		Random random = new Random(17);
+		for (int i = 0; i < ops; i++) {
+			// a few keys are hot: squaring bunches the picks at small numbers
+			double x = random.nextDouble();
+			String s = Long.toString((long) (x * x * ops) * 2654435761L % ops, 36);
+			int op = random.nextInt(10);
+			if (op < 6)
+				dict.search(new SortableString(s));
+			else if (op < 9)
+				dict.insert(new SortableString(s), s);
+			else
+				dict.delete(new SortableString(s));
+		}
+		dict.close();
+		System.out.println("Recorded " + dict.getRecorded() + " ops to " + fileName);
+	} // sample method
+
+	public static void main(String[] args) throws Exception {
+		if (args.length == 0) {
+			System.out.println("usage: WorkloadReplayer trace [engine [threads [max|original]]]"
+					+ "\n       WorkloadReplayer -sample trace operations");
+			return;
+		}
+		if (args[0].equals("-sample")) {
+			sample(args[1], Integer.parseInt(args[2]));
+			return;
+		}
+		String engine = (args.length > 1) ? args[1] : "avl";
+		int threads = (args.length > 2) ? Integer.parseInt(args[2]) : 1;
+		boolean originalSpeed = (args.length > 3) && args[3].equals("original");
+
+		WorkloadReplayer replayer = new WorkloadReplayer(WorkloadTrace.read(args[0]));
+		Dictionary<String, SortableString> dict = create(engine);
+		Dictionary<String, SortableString> target = dict;
+		if (threads > 1 && !(dict instanceof ShardedDictionary))
+			target = new SynchronizedDictionary<String, SortableString>(dict);
+		replayer.replay(target, threads, originalSpeed);
+		replayer.report(engine + " on " + threads + " thread(s) at "
+				+ (originalSpeed ? "original" : "max") + " speed", dict);
+	} // main method
+} /* WorkloadReplayer class */
@@ -0,0 +1,104 @@
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Arrays;
+
+// The "WorkloadTrace" class.
+// The operations captured by a RecordingDictionary, read back into
+// arrays for WorkloadReplayer. The trace format is a header (MAGIC,
+// VERSION) followed by one record per operation: the operation (a
+// byte), the nanoseconds since the previous operation (a variable
+// length long, 7 bits per byte) and the key's toString (as writeUTF).
+public class WorkloadTrace {
+	public static final int MAGIC = 0x44545243; // "DTRC"
+
+	public static final int VERSION = 1;
+
+	public static final byte SEARCH = 1;
+
+	public static final byte INSERT = 2;
+
+	public static final byte DELETE = 3;
+
+	protected int size = 0;
+
+	protected byte[] ops = new byte[1024];
+
+	protected long[] times = new long[1024]; // nanoseconds since the first operation.
+
+	protected String[] keys = new String[1024];
+
+	public static WorkloadTrace read(String fileName) throws IOException {
+		InputStream in = new FileInputStream(fileName);
+		try {
+			return read(in);
+		} finally {
+			in.close();
+		}
+	} // read method
+
+	public static WorkloadTrace read(InputStream stream) throws IOException {
+		DataInputStream in = new DataInputStream(new BufferedInputStream(
+				stream, 1 << 16));
+		if (in.readInt() != MAGIC)
+			throw new IOException("not a workload trace");
+		int version = in.readInt();
+		if (version != VERSION)
+			throw new IOException("unknown trace version " + version);
+		WorkloadTrace trace = new WorkloadTrace();
+		long time = 0;
+		while (true) {
+			int op = in.read();
+			if (op < 0)
+				break; // end of the trace
+			try {
+				time += readVarLong(in);
+				trace.add((byte) op, time, in.readUTF());
+			} catch (EOFException e) {
+				break; // the last record was cut off, as when the recorder died
+			}
+		}
+		return trace;
+	} // read method
+
+	public static long readVarLong(DataInputStream in) throws IOException {
+		long value = 0;
+		for (int shift = 0;; shift += 7) {
+			int b = in.readUnsignedByte();
+			value |= (long) (b & 0x7f) << shift;
+			if (b < 0x80)
+				return value;
+		}
+	} // readVarLong method
+
+	protected void add(byte op, long time, String key) {
+		if (size == ops.length) {
+			ops = Arrays.copyOf(ops, size * 2);
+			times = Arrays.copyOf(times, size * 2);
+			keys = Arrays.copyOf(keys, size * 2);
+		}
+		ops[size] = op;
+		times[size] = time;
+		keys[size] = key;
+		size++;
+	} // add method
+
+	public int size() {
+		return size;
+	} // size method
+
+	public byte getOp(int i) {
+		return ops[i];
+	} // getOp method
+
+	public long getTime(int i) {
+		return times[i];
+	} // getTime method
+
+	public String getKey(int i) {
+		return keys[i];
+	} // getKey method
+} /* WorkloadTrace class */